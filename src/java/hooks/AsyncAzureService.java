@@ -0,0 +1,225 @@
+package hooks;
+
+import utils.ResultMerger;
+import utils.ScenarioResult;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Runs the AzureService calls as a graph of asynchronous stages, so independent stages overlap:
+ *
+ * <pre>
+ *   PLAN -> SUITE -> POINTS -> RUN ----------> UPLOAD
+ *                          \-> STORE --------/
+ *   COMPACT ---------------/
+ * </pre>
+ *
+ * Local work (compacting the results, building the result store) runs while the Azure calls are in flight, so the
+ * marking latency follows the critical path. Each stage has its own timeout, counted from the moment it starts
+ * running on the stage pool, not from its submission.
+ *
+ * A timeout only fails the stage future, the blocking call keeps running. The stages creating a plan, suite or run
+ * therefore never time out before the HTTP client gives up, otherwise a slow create could still create the run in
+ * Azure after the stage failed, unknown to the checkpoint, and a resumed marking would create a second one.
+ */
+public class AsyncAzureService implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(AsyncAzureService.class.getName());
+
+    // Added to the HTTP timeouts for the stages creating Azure resources
+    private static final int CREATE_TIMEOUT_MARGIN_SEC = 15;
+
+    public enum Stage {
+        PLAN("PlanStageTimeoutSec", 90, true),
+        SUITE("SuiteStageTimeoutSec", 120, true),
+        POINTS("PointsStageTimeoutSec", 300, false),
+        COMPACT("CompactStageTimeoutSec", 60, false),
+        RUN("RunStageTimeoutSec", 90, true),
+        STORE("StoreStageTimeoutSec", 120, false),
+        UPLOAD("UploadStageTimeoutSec", 1800, false);
+
+        private final String timeoutKey;
+        private final int defaultTimeoutSec;
+        // Not idempotent, the POST must not outlive the stage
+        private final boolean createsResource;
+
+        Stage(String timeoutKey, int defaultTimeoutSec, boolean createsResource) {
+            this.timeoutKey = timeoutKey;
+            this.defaultTimeoutSec = defaultTimeoutSec;
+            this.createsResource = createsResource;
+        }
+    }
+
+    private final AzureService azureService;
+    private final ExecutorService executor;
+
+    public AsyncAzureService(AzureService azureService, int threads) {
+        this.azureService = azureService;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "azure-stage-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public CompletableFuture<String[]> createTestPlanIfIDNotProvided() {
+        return runStage(Stage.PLAN, azureService::createTestPlanIfIDNotProvided);
+    }
+
+    public CompletableFuture<String> createTestSuiteIfIDNotProvided(String planId, String rootSuiteId) {
+        return runStage(Stage.SUITE, () -> azureService.createTestSuiteIfIDNotProvided(planId, rootSuiteId));
+    }
+
+    public CompletableFuture<TestPoints> getPointIDs(String planId, String suiteId) {
+        return runStage(Stage.POINTS, () -> azureService.getPointIDs(planId, suiteId));
+    }
+
+    public CompletableFuture<String> createTestRunIfIDNotProvided(int[] pointIDs, String planId) {
+        return runStage(Stage.RUN, () -> azureService.createTestRunIfIDNotProvided(pointIDs, planId));
+    }
+
+    public CompletableFuture<List<ResultUploader.ChunkReport>> updateTestResults(String runId, PointResultStore results) {
+        return runStage(Stage.UPLOAD, () -> azureService.updateTestResults(runId, results, results.allPointIndexes()));
+    }
+
+    /**
+     * Resolves the plan, suite, points and run and marks the results in it, as AzureService.uploadTestResults does.
+     */
+    public CompletableFuture<List<ResultUploader.ChunkReport>> markResults(List<ScenarioResult> testData) {
+        return markResults(testData, MarkingCheckpoint.none());
+    }
+
+    /**
+     * Marks the results, resuming from the steps already completed in the checkpoint and recording the new ones.
+     */
+    public CompletableFuture<List<ResultUploader.ChunkReport>> markResults(List<ScenarioResult> testData, MarkingCheckpoint checkpoint) {
+        long start = System.nanoTime();
+        CompletableFuture<String[]> plan = resolvePlan(checkpoint);
+        CompletableFuture<TestPoints> points = resolvePoints(plan, checkpoint);
+        // Only the last result of a test case is marked, the others are dropped while Azure resolves the plan
+        CompletableFuture<List<ScenarioResult>> compacted = runStage(Stage.COMPACT, () -> compact(testData));
+
+        CompletableFuture<String> run = resolveRun(plan, points, checkpoint);
+        CompletableFuture<PointResultStore> store = points.thenCombine(compacted, (testPoints, results) ->
+                runStage(Stage.STORE, () -> azureService.createResultStore(testPoints, results)))
+                .thenCompose(stage -> stage);
+        return run.thenCombine(store, this::updateTestResults)
+                .thenCompose(stage -> stage)
+                .thenApply(reports -> {
+                    checkpoint.recordUploaded();
+                    return reports;
+                })
+                .whenComplete((reports, error) -> LOGGER.info("Marking " + (error == null ? "finished" : "failed")
+                        + " in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms"));
+    }
+
+    /**
+     * Resolves the plan, suite, points and run like markResults and starts publishing results to the run.
+     */
+    public CompletableFuture<ResultPublisher> startResultPublisher(MarkingCheckpoint checkpoint) {
+        CompletableFuture<String[]> plan = resolvePlan(checkpoint);
+        CompletableFuture<TestPoints> points = resolvePoints(plan, checkpoint);
+        AzureConfig azureConfig = azureService.getAzureConfig();
+        return resolveRun(plan, points, checkpoint).thenCombine(points, (runId, testPoints) ->
+                new ResultPublisher(azureService, runId, testPoints, azureConfig.getPublishBatchSize(), azureConfig.getPublishIntervalSec()));
+    }
+
+    private CompletableFuture<String[]> resolvePlan(MarkingCheckpoint checkpoint) {
+        String[] planDetails = checkpoint.getPlan();
+        if (planDetails != null) {
+            return CompletableFuture.completedFuture(planDetails);
+        }
+        return createTestPlanIfIDNotProvided().thenApply(created -> {
+            checkpoint.recordPlan(created[0], created[1]);
+            return created;
+        });
+    }
+
+    private CompletableFuture<TestPoints> resolvePoints(CompletableFuture<String[]> plan, MarkingCheckpoint checkpoint) {
+        TestPoints testPoints = checkpoint.getTestPoints();
+        if (testPoints != null) {
+            return CompletableFuture.completedFuture(testPoints);
+        }
+        String checkpointSuiteId = checkpoint.getSuiteId();
+        CompletableFuture<String> suite = checkpointSuiteId != null ? CompletableFuture.completedFuture(checkpointSuiteId)
+                : plan.thenCompose(planDetails -> createTestSuiteIfIDNotProvided(planDetails[0], planDetails[1]))
+                .thenApply(suiteId -> {
+                    checkpoint.recordSuite(suiteId);
+                    return suiteId;
+                });
+        return suite.thenCompose(suiteId -> getPointIDs(plan.join()[0], suiteId)).thenApply(fetched -> {
+            checkpoint.recordPoints(fetched);
+            return fetched;
+        });
+    }
+
+    private CompletableFuture<String> resolveRun(CompletableFuture<String[]> plan, CompletableFuture<TestPoints> points,
+                                                 MarkingCheckpoint checkpoint) {
+        String runId = checkpoint.getRunId();
+        if (runId != null) {
+            return CompletableFuture.completedFuture(runId);
+        }
+        // The run ID is fsync'd before any result is sent, a resumed marking never creates a second run
+        return points.thenCompose(testPoints -> createTestRunIfIDNotProvided(testPoints.getPointIDs(), plan.join()[0]))
+                .thenApply(created -> {
+                    checkpoint.recordRun(created);
+                    return created;
+                });
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private <T> CompletableFuture<T> runStage(Stage stage, Supplier<T> task) {
+        int timeoutSec = getTimeoutSec(stage);
+        CompletableFuture<T> stageFuture = new CompletableFuture<>();
+        executor.execute(() -> {
+            // The timeout starts with the stage, time queued behind other stages does not count
+            stageFuture.orTimeout(timeoutSec, TimeUnit.SECONDS);
+            long start = System.nanoTime();
+            try {
+                T value = task.get();
+                LOGGER.info("Stage " + stage + " done in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+                stageFuture.complete(value);
+            } catch (Throwable e) {
+                stageFuture.completeExceptionally(e);
+            }
+        });
+        return stageFuture.whenComplete((value, error) -> {
+            if (error instanceof TimeoutException) {
+                LOGGER.info("Stage " + stage + " timed out after " + timeoutSec + "s");
+            }
+        });
+    }
+
+    int getTimeoutSec(Stage stage) {
+        AzureConfig azureConfig = azureService.getAzureConfig();
+        int timeoutSec = azureConfig.getInt(stage.timeoutKey, stage.defaultTimeoutSec);
+        if (!stage.createsResource) {
+            return timeoutSec;
+        }
+        int httpTimeoutSec = (int) TimeUnit.MILLISECONDS.toSeconds(
+                (long) azureConfig.getHttpConnectTimeoutMs() + azureConfig.getHttpSocketTimeoutMs()) + CREATE_TIMEOUT_MARGIN_SEC;
+        if (timeoutSec < httpTimeoutSec) {
+            LOGGER.info("Raising " + stage.timeoutKey + " from " + timeoutSec + "s to " + httpTimeoutSec
+                    + "s, above the HTTP connect and socket timeouts");
+            return httpTimeoutSec;
+        }
+        return timeoutSec;
+    }
+
+    private static List<ScenarioResult> compact(List<ScenarioResult> testData) {
+        ResultMerger merger = new ResultMerger(ResultMerger.Policy.LATEST);
+        merger.addAll(testData);
+        return merger.getResults();
+    }
+}
@@ -0,0 +1,78 @@
+package hooks;
+
+import kong.unirest.GetRequest;
+import kong.unirest.HttpRequestWithBody;
+import kong.unirest.Unirest;
+import kong.unirest.UnirestInstance;
+import org.apache.commons.codec.binary.Base64;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * HTTP client for the Azure Test Plans API, configured once and shared by all the AzureService calls.
+ * It owns a dedicated Unirest instance with its own connection pool and pre-built authentication headers.
+ */
+public class AzureClient implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(AzureClient.class.getName());
+
+    public enum Endpoint {
+        CREATE_PLAN("/test/plans?api-version=5.0"),
+        CREATE_TEST_SUITE("/test/Plans/%s/suites/%s?api-version=5.0"),
+        CREATE_TEST_RUN("/test/runs?api-version=5.0"),
+        GET_POINT_IDS("/test/Plans/%s/Suites/%s/points?api-version=5.0"),
+        UPDATE_RUN_WITH_RESULT("/test/Runs/%s/results?api-version=5.0");
+
+        private final String path;
+
+        Endpoint(String path) {
+            this.path = path;
+        }
+
+        public String getPath(Object... pathParams) {
+            return pathParams.length == 0 ? path : String.format(path, pathParams);
+        }
+    }
+
+    private final String serverUrl;
+    private final UnirestInstance unirest;
+
+    public AzureClient(String serverUrl, String pat, int maxConnections, int connectTimeoutMs, int socketTimeoutMs, int connectionTtlSec) {
+        this.serverUrl = serverUrl;
+        this.unirest = Unirest.spawnInstance();
+        // Retries are handled by the callers (see ResultUploader), the pool keeps connections alive between calls
+        unirest.config()
+                .verifySsl(false)
+                .concurrency(maxConnections, maxConnections)
+                .connectTimeout(connectTimeoutMs)
+                .socketTimeout(socketTimeoutMs)
+                .connectionTTL(connectionTtlSec, TimeUnit.SECONDS)
+                .automaticRetries(false)
+                .setDefaultHeader("Authorization", "Basic " + encodePat(pat))
+                .setDefaultHeader("Accept", "application/json")
+                .setDefaultHeader("Content-type", "application/json");
+        LOGGER.info("Azure client initiated for: " + serverUrl + " with " + maxConnections + " pooled connections");
+    }
+
+    public HttpRequestWithBody post(Endpoint endpoint, Object... pathParams) {
+        return unirest.post(serverUrl + endpoint.getPath(pathParams));
+    }
+
+    public HttpRequestWithBody patch(Endpoint endpoint, Object... pathParams) {
+        return unirest.patch(serverUrl + endpoint.getPath(pathParams));
+    }
+
+    public GetRequest get(Endpoint endpoint, Object... pathParams) {
+        return unirest.get(serverUrl + endpoint.getPath(pathParams));
+    }
+
+    @Override
+    public void close() {
+        unirest.shutDown();
+    }
+
+    private static String encodePat(String pat) {
+        String authStr = ":" + pat;
+        return new String(new Base64().encode(authStr.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+    }
+}
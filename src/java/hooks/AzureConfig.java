@@ -0,0 +1,178 @@
+package hooks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Immutable Azure configuration, read from azure_config.json.
+ * PLAN_ID, ROOT_SUITE_ID, SUITE_ID, RUN_ID and AZURE_PAT system properties take precedence over the file.
+ */
+public class AzureConfig {
+    private static final Logger LOGGER = Logger.getLogger(AzureConfig.class.getName());
+
+    private final Map<String, Object> values;
+    private final String pat;
+
+    public AzureConfig(Map<String, Object> values) {
+        Map<String, Object> config = new HashMap<>(values);
+        overrideFromSystemProperty(config, "PlanID", "PLAN_ID");
+        overrideFromSystemProperty(config, "RootSuiteID", "ROOT_SUITE_ID");
+        overrideFromSystemProperty(config, "SuiteID", "SUITE_ID");
+        overrideFromSystemProperty(config, "RunID", "RUN_ID");
+        this.values = Collections.unmodifiableMap(config);
+        this.pat = System.getProperty("AZURE_PAT");
+    }
+
+    public static AzureConfig load(Path path) {
+        LOGGER.info("Load Azure config");
+        try {
+            AzureConfig config = new AzureConfig(new ObjectMapper().readValue(path.toFile(), new TypeReference<Map<String, Object>>() {}));
+            LOGGER.info("AZURE CONFIG: " + config);
+            return config;
+        } catch (IOException e) {
+            LOGGER.info("Azure config loading failure: \n" + e);
+            throw new RuntimeException("Error loading Azure config", e);
+        }
+    }
+
+    public String getServerUrl() {
+        return getString("ServerUrl");
+    }
+
+    public String getPat() {
+        return pat;
+    }
+
+    public String getPlanId() {
+        return getString("PlanID");
+    }
+
+    public String getPlanName() {
+        return getString("PlanName");
+    }
+
+    public String getPlanIterationPath() {
+        return getString("PlanIterationPath");
+    }
+
+    public String getPlanAreaPath() {
+        return getString("PlanAreaPath");
+    }
+
+    public String getRootSuiteId() {
+        return getString("RootSuiteID");
+    }
+
+    public String getSuiteId() {
+        return getString("SuiteID");
+    }
+
+    public String getSuiteName() {
+        return getString("SuiteName");
+    }
+
+    public String getRunId() {
+        return getString("RunID");
+    }
+
+    public String getRunName() {
+        return getString("RunName");
+    }
+
+    public int getPublishBatchSize() {
+        return getInt("PublishBatchSize", 50);
+    }
+
+    public int getPublishIntervalSec() {
+        return getInt("PublishIntervalSec", 30);
+    }
+
+    public int getUploadChunkSize() {
+        return getInt("UploadChunkSize", 200);
+    }
+
+    public int getUploadParallelism() {
+        return getInt("UploadParallelism", 4);
+    }
+
+    public int getUploadMaxRetries() {
+        return getInt("UploadMaxRetries", 5);
+    }
+
+    public int getUploadInitialBackoffMs() {
+        return getInt("UploadInitialBackoffMs", 1000);
+    }
+
+    public int getPointPageSize() {
+        return getInt("PointPageSize", 0);
+    }
+
+    public int getPointPageParallelism() {
+        return getInt("PointPageParallelism", 1);
+    }
+
+    public int getHttpMaxConnections() {
+        return getInt("HttpMaxConnections", 20);
+    }
+
+    public int getHttpConnectTimeoutMs() {
+        return getInt("HttpConnectTimeoutMs", 10000);
+    }
+
+    public int getHttpSocketTimeoutMs() {
+        return getInt("HttpSocketTimeoutMs", 60000);
+    }
+
+    public int getHttpConnectionTtlSec() {
+        return getInt("HttpConnectionTtlSec", 300);
+    }
+
+    public int getAsyncStageThreads() {
+        return getInt("AsyncStageThreads", 4);
+    }
+
+    public String getPublishedSnapshotDir() {
+        String dir = getString("PublishedSnapshotDir");
+        return dir == null || dir.isEmpty() ? "./.azure-cache/published" : dir;
+    }
+
+    public String getResolutionCacheDir() {
+        String dir = getString("ResolutionCacheDir");
+        return dir == null || dir.isEmpty() ? "./.azure-cache" : dir;
+    }
+
+    public int getResolutionCacheTtlHours() {
+        return getInt("ResolutionCacheTtlHours", 0);
+    }
+
+    public String getString(String key) {
+        Object value = values.get(key);
+        return value == null ? null : String.valueOf(value);
+    }
+
+    public int getInt(String key, int defaultValue) {
+        Object value = values.get(key);
+        if (value == null || String.valueOf(value).isEmpty()) {
+            return defaultValue;
+        }
+        return value instanceof Number ? ((Number) value).intValue() : Integer.parseInt(String.valueOf(value));
+    }
+
+    @Override
+    public String toString() {
+        return values.toString();
+    }
+
+    private static void overrideFromSystemProperty(Map<String, Object> config, String key, String propertyName) {
+        String value = System.getProperty(propertyName);
+        if (value != null && !value.isEmpty()) {
+            config.put(key, value);
+        }
+    }
+}
@@ -1,61 +1,64 @@
 package hooks;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import io.cucumber.java.Scenario;
+import kong.unirest.GetRequest;
 import kong.unirest.HttpResponse;
 import kong.unirest.JsonNode;
-import kong.unirest.Unirest;
 import kong.unirest.UnirestException;
-import kong.unirest.json.JSONArray;
 import kong.unirest.json.JSONObject;
-import org.apache.commons.codec.binary.Base64;
-import org.apache.poi.ss.usermodel.Row;
 import java.io.IOException;
-import java.nio.file.Paths;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
 import java.util.logging.Logger;
+import utils.ExcelUtil;
+import utils.Metrics;
+import utils.ScenarioResult;
 
 public class AzureService {
 
-    private static final String CREATE_PLAN_PATH = "/test/plans?api-version=5.0";
-    private static final String CREATE_TEST_SUITE_PATH = "/test/Plans/%s/suites/%s?api-version=5.0";
-    private static final String CREATE_TEST_RUN_PATH = "/test/runs?api-version=5.0";
-    private static final String GET_POINT_IDS_PATH = "/test/Plans/%s/Suites/%s/points?api-version=5.0";
-    private static final String UPDATE_RUN_WITH_RESULT_PATH = "/test/Runs/%s/results?api-version=5.0";
-    private static final String PAT = System.getProperty("AZURE_PAT");
+    private static final int FIRST_RESULT_ID = 100000;
+    // Ends the result comment, followed by the Report Portal launch URL of the current run
+    static final String REPORT_PORTAL_LINK = " | Reports portal link: ";
+    private static final String SUITE_QUERY = "SELECT [System.Id],[System.WorkItemType],[System.Title],[Microsoft.VSTS.Common.Priority],[System.AssignedTo],[System.AreaPath] FROM WorkItems WHERE [System.TeamProject] = @project AND [System.WorkItemType] IN GROUP 'Microsoft.TestCaseCategory' AND [Jio.Common.FEAutomationStatus] IN ('EAT and SIT Automated')";
 
     private static final Logger LOGGER = Logger.getLogger(AzureService.class.getName());
-    private final String AZURE_URL;
-    private final Map azureConfig;
-
-
-    public AzureService() {
-        this.azureConfig = loadAzureConfig();
-        LOGGER.info("AZURE CONFIG: " + azureConfig);
-        this.AZURE_URL = (String) azureConfig.get("ServerUrl");
+    private static final Metrics.Timer CREATE_PLAN_TIMER = Metrics.timer("azure_create_plan");
+    private static final Metrics.Timer CREATE_TEST_SUITE_TIMER = Metrics.timer("azure_create_test_suite");
+    private static final Metrics.Timer CREATE_TEST_RUN_TIMER = Metrics.timer("azure_create_test_run");
+    private static final Metrics.Timer GET_POINT_IDS_TIMER = Metrics.timer("azure_get_point_ids");
+    private static final Metrics.Timer UPDATE_RUN_WITH_RESULT_TIMER = Metrics.timer("azure_update_run_with_result");
+    private static final Metrics.Timer RESULT_STORE_TIMER = Metrics.timer("result_store_build");
+    private static final Metrics.Counter POINTS = Metrics.counter("points_fetched");
+    private static final Metrics.Counter BYTES_SENT = Metrics.counter("result_bytes_sent");
+    private final AzureClient azureClient;
+    private final AzureConfig azureConfig;
+    private final ResolutionCache resolutionCache;
+    private final Map<String, PublishedResultSnapshot> publishedSnapshots = new ConcurrentHashMap<>();
+
+
+    public AzureService(AzureConfig azureConfig, AzureClient azureClient) {
+        this.azureConfig = azureConfig;
+        this.azureClient = azureClient;
+        this.resolutionCache = ResolutionCache.forConfig(azureConfig, SUITE_QUERY);
     }
 
-    public Map getAzureConfig() {
+    public AzureConfig getAzureConfig() {
         return this.azureConfig;
     }
 
     public String[] createTestPlan() {
+        long start = System.nanoTime();
         try {
-            String planName = (String) azureConfig.get("PlanName");
-            String planAreaPath = (String) azureConfig.get("PlanAreaPath");
-            String planIterationPath = (String) azureConfig.get("PlanIterationPath");
+            String planName = azureConfig.getPlanName();
+            String planAreaPath = azureConfig.getPlanAreaPath();
+            String planIterationPath = azureConfig.getPlanIterationPath();
             LOGGER.info("Create plan with name: " + planName + " via API at Iteration: " + planIterationPath + " and Area path: " + planAreaPath);
 
-            HashMap<String, String> headers = new HashMap<>();
-            headers.put("Authorization", "Basic " + getEncodedPat());
-            headers.put("Accept", "application/json");
-            headers.put("Content-type", "application/json");
-
             JSONObject body = new JSONObject();
             body.put("name", planName);
             body.put("iteration", planIterationPath);
@@ -63,73 +66,95 @@ public class AzureService {
             areaPath.put("name", planAreaPath);
             body.put("area", areaPath);
 
-            Unirest.config().verifySsl(false);
-            HttpResponse<JsonNode> apiResponse = Unirest.post(AZURE_URL + CREATE_PLAN_PATH)
-                    .headers(headers).body(body).asJson();
-            LOGGER.info("Create Plan API response: " + apiResponse.getBody());
-            LOGGER.info("Create Plan API status: " + apiResponse.getStatus());
-            LOGGER.info("Create Plan API status text: " + apiResponse.getStatusText());
+            HttpResponse<JsonNode> apiResponse = azureClient.post(AzureClient.Endpoint.CREATE_PLAN).body(body).asJson();
+            LOGGER.info("Create Plan API status: " + apiResponse.getStatus() + " :: " + apiResponse.getStatusText());
 
             JSONObject responseBody = apiResponse.getBody().getObject();
             String planId = String.valueOf(responseBody.getInt("id"));
             String rootSuiteId = String.valueOf(responseBody.getJSONObject("rootSuite").getInt("id"));
 
-            LOGGER.info(String.format("Response of Create Plan API: '%s': \n\n%s", planName, responseBody + "\n" + apiResponse.getStatus() + " :: " + apiResponse.getStatusText()));
+            logResponse("Create Plan", planName, responseBody);
+            LOGGER.info("Plan created with ID: " + planId + ", root suite ID: " + rootSuiteId);
 
             return new String[]{planId, rootSuiteId};
         } catch (UnirestException e) {
             e.printStackTrace();
             throw new RuntimeException("Unable to Create Plan: via API", e);
+        } finally {
+            CREATE_PLAN_TIMER.recordSince(start);
         }
     }
 
     public String createTestSuite(String planId, String rootSuiteId) {
+        long start = System.nanoTime();
         try {
             DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss");
             LocalDateTime now = LocalDateTime.now();
-            String suiteName = azureConfig.get("SuiteName") + "_" + dtf.format(now);
+            String suiteName = azureConfig.getSuiteName() + "_" + dtf.format(now);
             LOGGER.info("Create Suite based on Query: Test cases with FE Automation Status as: 'Done and SIT/EAT Automated', with name: " + suiteName + " via API under test plan: " + planId);
 
-            String queryString = "SELECT [System.Id],[System.WorkItemType],[System.Title],[Microsoft.VSTS.Common.Priority],[System.AssignedTo],[System.AreaPath] FROM WorkItems WHERE [System.TeamProject] = @project AND [System.WorkItemType] IN GROUP 'Microsoft.TestCaseCategory' AND [Jio.Common.FEAutomationStatus] IN ('EAT and SIT Automated')";
-
-            HashMap<String, String> headers = new HashMap<>();
-            headers.put("Authorization", "Basic " + getEncodedPat());
-            headers.put("Accept", "application/json");
-            headers.put("Content-type", "application/json");
-
             JSONObject body = new JSONObject();
             body.put("name", suiteName);
             body.put("suiteType", "DynamicTestSuite");
-            body.put("queryString", queryString);
+            body.put("queryString", SUITE_QUERY);
 
-            Unirest.config().verifySsl(false);
-            HttpResponse<JsonNode> apiResponse = Unirest.post(AZURE_URL + getCreateTestSuiteAPIPath(planId, rootSuiteId))
-                    .headers(headers).body(body).asJson();
-            LOGGER.info("Create Test Suite API response: " + apiResponse.getBody());
-            LOGGER.info("Create Test Suite API status: " + apiResponse.getStatus());
+            HttpResponse<JsonNode> apiResponse = azureClient.post(AzureClient.Endpoint.CREATE_TEST_SUITE, planId, rootSuiteId).body(body).asJson();
+            LOGGER.info("Create Test Suite API status: " + apiResponse.getStatus() + " :: " + apiResponse.getStatusText());
 
             JSONObject responseBody = apiResponse.getBody().getObject();
 
             String suiteId = String.valueOf(responseBody.getJSONArray("value").getJSONObject(0).getInt("id"));
 
-            LOGGER.info(String.format("Response of Create Test Suite API: '%s': \n\n%s", suiteName, responseBody + "\n" + apiResponse.getStatus() + " :: " + apiResponse.getStatusText()));
+            logResponse("Create Test Suite", suiteName, responseBody);
+            LOGGER.info("Suite created with ID: " + suiteId);
             return suiteId;
         } catch (UnirestException e) {
             e.printStackTrace();
             throw new RuntimeException("Unable to Create Test Suite: via API", e);
+        } finally {
+            CREATE_TEST_SUITE_TIMER.recordSince(start);
+        }
+    }
+
+    public String[] createTestPlanIfIDNotProvided() {
+        String planId = azureConfig.getPlanId();
+        String rootSuiteId = azureConfig.getRootSuiteId();
+
+        LOGGER.info("Create test plan if plan ID not provided");
+        if (planId == null || planId.isEmpty()) {
+            String[] planDetails = resolutionCache.getPlan();
+            if (planDetails == null) {
+                planDetails = createTestPlan();
+                resolutionCache.putPlan(planDetails[0], planDetails[1]);
+            }
+            return planDetails;
         }
+
+        return new String[]{planId, rootSuiteId};
+    }
+
+    public String createTestSuiteIfIDNotProvided(String planId, String rootSuiteId) {
+        LOGGER.info("Create test suite if suite ID not provided");
+        String suiteId = azureConfig.getSuiteId();
+        if (suiteId == null || suiteId.isEmpty()) {
+            suiteId = resolutionCache.getSuiteId(planId);
+        }
+        if (suiteId == null || suiteId.isEmpty()) {
+            if (rootSuiteId == null || rootSuiteId.isEmpty()) {
+                throw new RuntimeException("Error Creating Test Suite: Please provide Root Suite ID");
+            }
+            suiteId = createTestSuite(planId, rootSuiteId);
+            resolutionCache.putSuite(planId, suiteId);
+        }
+        return suiteId;
     }
 
     public String createTestRun(int[] pointIDs, String planId) {
+        long start = System.nanoTime();
         try {
-            String runName = (String) azureConfig.get("RunName");
+            String runName = azureConfig.getRunName();
             LOGGER.info("Create Test Run with name: " + runName + " via API under test plan: " + planId);
 
-            HashMap<String, String> headers = new HashMap<>();
-            headers.put("Authorization", "Basic " + getEncodedPat());
-            headers.put("Accept", "application/json");
-            headers.put("Content-type", "application/json");
-
             JSONObject body = new JSONObject();
             body.put("name", runName);
             body.put("pointIds", pointIDs);
@@ -137,192 +162,218 @@ public class AzureService {
             plan.put("id", planId);
             body.put("plan", plan);
 
-            Unirest.config().verifySsl(false);
-            HttpResponse<JsonNode> apiResponse = Unirest.post(AZURE_URL + CREATE_TEST_RUN_PATH)
-                    .headers(headers).body(body).asJson();
-            LOGGER.info("Create Test Run API response: " + apiResponse.getBody());
-            LOGGER.info("Create Test Run API status: " + apiResponse.getStatus());
+            HttpResponse<JsonNode> apiResponse = azureClient.post(AzureClient.Endpoint.CREATE_TEST_RUN).body(body).asJson();
+            LOGGER.info("Create Test Run API status: " + apiResponse.getStatus() + " :: " + apiResponse.getStatusText());
 
             JSONObject responseBody = apiResponse.getBody().getObject();
 
             String runId = String.valueOf(responseBody.getInt("id"));
             LOGGER.info("RUN Created with ID: " + runId);
-            LOGGER.info(String.format("Response of Create Test Run API: '%s': \n\n%s", runName, responseBody + "\n" + apiResponse.getStatus() + " :: " + apiResponse.getStatusText()));
+            logResponse("Create Test Run", runName, responseBody);
             return runId;
         } catch (UnirestException e) {
             e.printStackTrace();
             throw new RuntimeException("Unable to Create Run: via API", e);
+        } finally {
+            CREATE_TEST_RUN_TIMER.recordSince(start);
         }
     }
 
-    public Object[] getPointIDs(String planId, String suiteId) {
-        try {
-            List<Integer> pointIDs = new ArrayList<>();
-            HashMap<String, Integer> testCaseIDs = new HashMap<>();
-            LOGGER.info("Get Point IDs for current Suite");
-
-            HashMap<String, String> headers = new HashMap<>();
-            headers.put("Authorization", "Basic " + getEncodedPat());
+    public TestPoints getPointIDs(String planId, String suiteId) {
+        LOGGER.info("Get Point IDs for current Suite");
+        int pageSize = azureConfig.getPointPageSize();
+        ResolutionCache.CachedPoints cachedPoints = resolutionCache.getPoints(planId, suiteId);
+        if (cachedPoints != null) {
+            TestPointPage firstPage = getPointIDsPage(planId, suiteId, null, 0, pageSize,
+                    cachedPoints.getEtag(), cachedPoints.getLastModified());
+            if (firstPage.isNotModified()) {
+                LOGGER.info("Point IDs not modified, using " + cachedPoints.getTestPoints().size() + " cached points");
+                resolutionCache.touchPoints(planId, suiteId);
+                return cachedPoints.getTestPoints();
+            }
+            if (firstPage.getContinuationToken() == null && pageSize <= 0) {
+                // The suite fits in the page just fetched, no need to read it again
+                TestPoints testPoints = new TestPoints(firstPage.getPointIDs(), firstPage.getTestCaseIDs());
+                resolutionCache.putPoints(planId, suiteId, testPoints, firstPage.getEtag(), firstPage.getLastModified());
+                return testPoints;
+            }
+        }
 
-            Unirest.config().verifySsl(false);
-            HttpResponse<JsonNode> apiResponse = Unirest.get(AZURE_URL + getPointIDsAPIPath(planId, suiteId))
-                    .headers(headers).asJson();
-            LOGGER.info("Get PointIDs API response: " + apiResponse.getBody());
-            LOGGER.info("Get PointIDs API status: " + apiResponse.getStatus());
+        TestPointPager pager = new TestPointPager(this, planId, suiteId, pageSize, azureConfig.getPointPageParallelism());
+        TestPoints testPoints = pager.readAll();
+        if (pager.getPageCount() == 1) {
+            // Validators of a single page cover the whole suite, those of the first of several pages do not
+            TestPointPage firstPage = pager.getFirstPage();
+            resolutionCache.putPoints(planId, suiteId, testPoints, firstPage.getEtag(), firstPage.getLastModified());
+        }
+        return testPoints;
+    }
 
-            JSONObject responseBody = apiResponse.getBody().getObject();
-            JSONArray valueArr = responseBody.getJSONArray("value");
+    public TestPointPage getPointIDsPage(String planId, String suiteId, String continuationToken, int skip, int top) {
+        return getPointIDsPage(planId, suiteId, continuationToken, skip, top, null, null);
+    }
 
-            for (int i = 0; i < valueArr.length(); ++i) {
-                int pointId = valueArr.getJSONObject(i).getInt("id");
-                pointIDs.add(pointId);
-                testCaseIDs.put(String.valueOf(valueArr.getJSONObject(i).getJSONObject("testCase").getInt("id")), pointId);
+    public TestPointPage getPointIDsPage(String planId, String suiteId, String continuationToken, int skip, int top,
+                                         String ifNoneMatch, String ifModifiedSince) {
+        long start = System.nanoTime();
+        try {
+            GetRequest request = azureClient.get(AzureClient.Endpoint.GET_POINT_IDS, planId, suiteId);
+            if (ifNoneMatch != null) {
+                request.header("If-None-Match", ifNoneMatch);
+            }
+            if (ifModifiedSince != null) {
+                request.header("If-Modified-Since", ifModifiedSince);
+            }
+            if (continuationToken != null) {
+                request.queryString("continuationToken", continuationToken);
+            }
+            if (top > 0) {
+                request.queryString("$skip", skip).queryString("$top", top);
             }
 
-            LOGGER.info("PointIDs For current run: " + pointIDs);
-            LOGGER.info("Test Cases For current run: " + testCaseIDs);
-            LOGGER.info(String.format("Response of Get PointIDs API: \n\n%s", responseBody + "\n" + apiResponse.getStatus() + " :: " + apiResponse.getStatusText()));
+            HttpResponse<TestPointPage> apiResponse = request.asObject(rawResponse -> {
+                String etag = rawResponse.getHeaders().getFirst("ETag");
+                String lastModified = rawResponse.getHeaders().getFirst("Last-Modified");
+                if (rawResponse.getStatus() == 304) {
+                    return TestPointPage.notModified(etag, lastModified);
+                }
+                if (rawResponse.getStatus() < 200 || rawResponse.getStatus() >= 300) {
+                    return null;
+                }
+                try {
+                    return TestPointPage.parse(rawResponse.getContent(), rawResponse.getHeaders().getFirst("x-ms-continuationtoken"))
+                            .withValidators(emptyToNull(etag), emptyToNull(lastModified));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            LOGGER.info("Get PointIDs API status: " + apiResponse.getStatus() + " :: " + apiResponse.getStatusText());
 
-            return new Object[]{pointIDs.stream().mapToInt(i -> i).toArray(), testCaseIDs};
+            TestPointPage page = apiResponse.getBody();
+            if (page == null) {
+                throw new RuntimeException("Get PointIDs API failed with status: " + apiResponse.getStatus());
+            }
+            if (page.isNotModified()) {
+                return page;
+            }
+            POINTS.add(page.size());
+            LOGGER.info("Get PointIDs API page with " + page.size() + " points, has more pages: " + (page.getContinuationToken() != null));
+            return page;
         } catch (UnirestException e) {
             e.printStackTrace();
             throw new RuntimeException("Unable to Get PointIDs for current run via API", e);
+        } finally {
+            GET_POINT_IDS_TIMER.recordSince(start);
         }
     }
 
     public AzureService uploadTestResults(String planId, String suiteId) {
+        // Scenario data is collected after every scenario and then after suit test cases are marked from a snapshot of it
+        return uploadTestResults(planId, suiteId, new ExcelUtil().getTestRunData());
+    }
+
+    public AzureService uploadTestResults(String planId, String suiteId, List<ScenarioResult> testData) {
         LOGGER.info("Uploading test results");
-        Object[] pointDetails = getPointIDs(planId, suiteId);
-        int[] pointIDs = (int[]) pointDetails[0];
-        HashMap<String, Integer> allTestCaseIDs = (HashMap<String, Integer>) pointDetails[1];
+        TestPoints testPoints = getPointIDs(planId, suiteId);
+        int[] pointIDs = testPoints.getPointIDs();
 
-        // Get Json String of results of all the scenarios executed
-        String resultJson = getResultDataJson(pointIDs, allTestCaseIDs);
+        // Get results of all the scenarios executed
+        LOGGER.info("Update result store with the test data of " + testData.size() + " scenarios");
+        PointResultStore results = createResultStore(testPoints, testData);
 
-        // Create test run if run ID not provided
-        String runId = System.getProperty("RUN_ID");
+        String runId = createTestRunIfIDNotProvided(pointIDs, planId);
+        updateTestResults(runId, results, results.allPointIndexes());
+        return this;
+    }
+
+    public String createTestRunIfIDNotProvided(int[] pointIDs, String planId) {
+        String runId = azureConfig.getRunId();
         if (runId == null || runId.isEmpty()) {
             runId = createTestRun(pointIDs, planId);
         }
-
-        try {
-            String runName = (String) azureConfig.get("RunName");
-            LOGGER.info("Update Test Run with name: " + runName + " via API under test plan: " + planId);
-
-            HashMap<String, String> headers = new HashMap<>();
-            headers.put("Authorization", "Basic " + getEncodedPat());
-            headers.put("Accept", "application/json");
-            headers.put("Content-type", "application/json");
-
-            Unirest.config().verifySsl(false);
-            HttpResponse<JsonNode> apiResponse = Unirest.patch(AZURE_URL + getUpdateRunAPIPath(runId))
-                    .headers(headers).body(resultJson).asJson();
-
-            LOGGER.info(String.format("Response of Update Run API: '%s': \n\n%s", runName, apiResponse.getBody() + "\n" + apiResponse.getStatus() + " :: " + apiResponse.getStatusText()));
-            return this;
-        } catch (UnirestException e) {
-            e.printStackTrace();
-            throw new RuntimeException("Unable to Update the results in run: " + runId + " via API", e);
-        }
+        return runId;
     }
 
-    public String extractTestCaseIds(Scenario scenario) {
-        LOGGER.info("Extracting Test case IDs from scenario");
-        StringBuilder tcIDs = new StringBuilder();
-        for (String tag : scenario.getSourceTagNames()) {
-            if (tag.contains("TC-") || tag.contains("TC_")) {
-                tcIDs.append(tag.split("-")[1]).append(",");
-            }
-        }
-        return tcIDs.toString();
+    public List<ResultUploader.ChunkReport> updateTestResults(String runId, PointResultStore results, int[] pointIndexes) {
+        String runName = azureConfig.getRunName();
+        LOGGER.info("Update Test Run with name: " + runName + " via API, run ID: " + runId);
+        PublishedResultSnapshot snapshot = publishedSnapshots.computeIfAbsent(runId, id ->
+                PublishedResultSnapshot.load(Paths.get(azureConfig.getPublishedSnapshotDir()), id, results.getTestPoints()));
+        // Untouched points and points already published with the same outcome and comment are not sent again
+        int[] changedPointIndexes = snapshot.changedPointIndexes(results, pointIndexes);
+        LOGGER.info("Sending " + changedPointIndexes.length + " of " + pointIndexes.length
+                + " results, the others are untouched or unchanged since they were last published");
+        List<ResultUploader.ChunkReport> reports = new ResultUploader(this, azureConfig.getUploadChunkSize(),
+                azureConfig.getUploadParallelism(), azureConfig.getUploadMaxRetries(), azureConfig.getUploadInitialBackoffMs())
+                .upload(runId, results, changedPointIndexes, (indexes, from, to) ->
+                        snapshot.appendPublished(results, indexes, from, to));
+        snapshot.compactIfLogExceedsSnapshot();
+        return reports;
     }
 
-    private String getEncodedPat() {
-        LOGGER.info("Encode PAT for authentication");
-        String AuthStr = ":" + PAT;
-        Base64 base64 = new Base64();
-        return new String(base64.encode(AuthStr.getBytes()));
+    /**
+     * Compacts the published result logs of the runs updated by this service into their snapshots.
+     */
+    public void compactPublishedSnapshots() {
+        for (PublishedResultSnapshot snapshot : publishedSnapshots.values()) {
+            snapshot.compact();
+        }
     }
 
-    private String getResultDataJson(int[] pointIDs, HashMap<String, Integer> allTestCaseIDs) {
-        LOGGER.info("Get Result Json");
-        LOGGER.info("Map point IDs and result output IDs");
-        HashMap<Integer, HashMap> allPointData = getMappedPointIDs(pointIDs);
-
-        LOGGER.info("Read test data from Test Run Excel (AutomationTestRun) and Update result map with test data");
-
-        // Sceanrio data is added to excel sheet after every scenario and then after suit test cases are marked by reading data from excel
-//        List<Row> testData = new ExcelUtil().getTestRunDataFromExcel();
-        List<Row> testData = new ArrayList<>();
-        for (int i = 1; i < testData.size(); i++) {
-            // One row has data of one scenario, with columns:
-            // 0: "Description of Scenario", 1: "Status", 2: "Test Case Ids", 3: "Feature"
-            Row currentData = testData.get(i);
-            String[] tcIDs = currentData.getCell(2).toString().split(",");
-            for (String tcID : tcIDs) {
-                // if Test case ID mentioned in scenario is present in Run, then update the result map with the data
-                if (allTestCaseIDs.containsKey(tcID)) {
-                    int pointId = allTestCaseIDs.get(tcID);
-                    HashMap pointData = allPointData.get(pointId);
-                    pointData.put("state", "Completed");
-                    pointData.put("outcome", currentData.getCell(1).toString());
-                    pointData.put("comment", "Test Case run by Automation: " + tcID + " : " + currentData.getCell(1) +
-                            " | Feature File: " + currentData.getCell(3) +
-                            " | Description: " + currentData.getCell(0) +
-                            " | Reports portal link: " + SessionContext.getReportPortalLaunchURL()
-                    );
-                }
-
-            }
+    public HttpResponse<String> sendTestResults(String runId, byte[] resultJson) {
+        long start = System.nanoTime();
+        try {
+            BYTES_SENT.add(resultJson.length);
+            HttpResponse<String> apiResponse = azureClient.patch(AzureClient.Endpoint.UPDATE_RUN_WITH_RESULT, runId).body(resultJson).asString();
+            LOGGER.info("Update Run API status for run: " + runId + " :: " + apiResponse.getStatus() + " :: " + apiResponse.getStatusText());
+            logResponse("Update Run", runId, apiResponse.getBody());
+            return apiResponse;
+        } finally {
+            UPDATE_RUN_WITH_RESULT_TIMER.recordSince(start);
         }
-
-        LOGGER.info("Create result array in same order of the test cases present in run");
-        return createResultJson(pointIDs, allPointData);
     }
 
-    private String getCreateTestSuiteAPIPath(String planId, String rootSuiteId) {
-        return String.format(CREATE_TEST_SUITE_PATH, planId, rootSuiteId);
+    public ResultPublisher startResultPublisher(String planId, String suiteId) {
+        LOGGER.info("Resolve points and run for live result publishing");
+        TestPoints testPoints = getPointIDs(planId, suiteId);
+        String runId = createTestRunIfIDNotProvided(testPoints.getPointIDs(), planId);
+        return new ResultPublisher(this, runId, testPoints,
+                azureConfig.getPublishBatchSize(), azureConfig.getPublishIntervalSec());
     }
 
-    private String getPointIDsAPIPath(String planId, String suiteId) {
-        return String.format(GET_POINT_IDS_PATH, planId, suiteId);
+    public String getResultComment(int tcID, ScenarioResult result) {
+        return "Test Case run by Automation: " + tcID + " : " + result.getStatus() +
+                " | Feature File: " + result.getFeatureName() +
+                " | Description: " + result.getScenarioName() +
+                REPORT_PORTAL_LINK + SessionContext.getReportPortalLaunchURL();
     }
 
-    private String getUpdateRunAPIPath(String runId) {
-        return String.format(UPDATE_RUN_WITH_RESULT_PATH, runId);
+    private static void logResponse(String api, String name, Object responseBody) {
+        // Response bodies can be large, they are only built into a log line when FINE logging is on
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine(String.format("Response of %s API: '%s': \n\n%s", api, name, responseBody));
+        }
     }
 
-    private Map loadAzureConfig() {
-        LOGGER.info("Load Azure config");
-        try {
-            return new ObjectMapper().readValue(Paths.get("./resources/configuration/azure_config.json").toFile(), Map.class);
-        } catch (IOException e) {
-            LOGGER.info("Azure config loading failure: \n" + e);
-            throw new RuntimeException("Error loading Azure config", e);
-        }
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
     }
 
-    private HashMap<Integer, HashMap> getMappedPointIDs(int[] pointIDs) {
-        HashMap<Integer, HashMap> allPointData = new HashMap<>();
-        for (int i = 0; i < pointIDs.length; ++i) {
-            HashMap<String, Object> pointData = new HashMap<>();
-            pointData.put("id", 100000 + i);
-            pointData.put("state", "");
-            pointData.put("outcome", "");
-            pointData.put("comment", "Test Case run by Automation");
-            allPointData.put(pointIDs[i], pointData);
-        }
-        return allPointData;
+    public static int getResultId(int pointIndex) {
+        // Results of a run created with point IDs are numbered from 100000 in the order of the points
+        return FIRST_RESULT_ID + pointIndex;
     }
 
-    private String createResultJson(int[] pointIDs, HashMap<Integer, HashMap> allPointData) {
-        JSONArray result = new JSONArray();
-        for (int pointId : pointIDs) {
-            HashMap pointData = allPointData.get(pointId);
-            result.put(new JSONObject(pointData));
+    public PointResultStore createResultStore(TestPoints testPoints, List<ScenarioResult> testData) {
+        long start = System.nanoTime();
+        PointResultStore results = new PointResultStore(testPoints);
+        for (ScenarioResult currentData : testData) {
+            for (int tcID : currentData.getTestCaseIds()) {
+                // if Test case ID mentioned in scenario is present in Run, then update the result of its point
+                results.complete(tcID, currentData.getStatus(), getResultComment(tcID, currentData));
+            }
         }
-        String resultJson = result.toString();
-        LOGGER.info("Final Result Json: \n" + resultJson);
-        return resultJson;
+        RESULT_STORE_TIMER.recordSince(start);
+        return results;
     }
 }
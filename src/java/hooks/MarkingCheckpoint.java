@@ -0,0 +1,173 @@
+package hooks;
+
+import utils.DurableFiles;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * Write-ahead progress of marking results in Azure: plan -> suite -> points -> run -> uploaded.
+ * Every completed step is fsync'd before the next one starts, so marking interrupted by a crash or a kill is resumed
+ * by a later invocation with the IDs already created, without creating the plan, suite or run again.
+ * Uploaded chunks are tracked per point by the PublishedResultSnapshot of the run.
+ */
+public class MarkingCheckpoint {
+    private static final Logger LOGGER = Logger.getLogger(MarkingCheckpoint.class.getName());
+
+    public enum Step {
+        STARTED, PLAN, SUITE, POINTS, RUN, UPLOADED
+    }
+
+    private final Path file;
+    private final Properties state;
+    private TestPoints testPoints;
+
+    private MarkingCheckpoint(Path file, Properties state) {
+        this.file = file;
+        this.state = state;
+    }
+
+    /**
+     * Checkpoint of a new test run, any progress left by a previous run in the same file is discarded.
+     */
+    public static MarkingCheckpoint start(Path file) {
+        MarkingCheckpoint checkpoint = new MarkingCheckpoint(file, new Properties());
+        checkpoint.state.setProperty("step", Step.STARTED.name());
+        checkpoint.save();
+        try {
+            Files.deleteIfExists(checkpoint.getPointsFile());
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to reset marking checkpoint: " + file, e);
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Checkpoint to resume, a new one when the file does not exist.
+     */
+    public static MarkingCheckpoint load(Path file) {
+        Properties state = new Properties();
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                state.load(reader);
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to read marking checkpoint: " + file, e);
+            }
+            LOGGER.info("Resuming marking from step " + state.getProperty("step") + " of checkpoint: " + file);
+        } else {
+            state.setProperty("step", Step.STARTED.name());
+        }
+        return new MarkingCheckpoint(file, state);
+    }
+
+    /**
+     * Checkpoint kept in memory only, for callers that do not resume.
+     */
+    public static MarkingCheckpoint none() {
+        Properties state = new Properties();
+        state.setProperty("step", Step.STARTED.name());
+        return new MarkingCheckpoint(null, state);
+    }
+
+    public synchronized Step getStep() {
+        return Step.valueOf(state.getProperty("step", Step.STARTED.name()));
+    }
+
+    public synchronized boolean isDone(Step step) {
+        return getStep().compareTo(step) >= 0;
+    }
+
+    public synchronized String[] getPlan() {
+        return isDone(Step.PLAN) ? new String[]{state.getProperty("planId"), state.getProperty("rootSuiteId", "")} : null;
+    }
+
+    public synchronized String getSuiteId() {
+        return isDone(Step.SUITE) ? state.getProperty("suiteId") : null;
+    }
+
+    public synchronized TestPoints getTestPoints() {
+        if (testPoints == null && file != null && isDone(Step.POINTS)) {
+            try (InputStream in = Files.newInputStream(getPointsFile())) {
+                testPoints = TestPoints.readFrom(new DataInputStream(new BufferedInputStream(in)));
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to read checkpoint points: " + getPointsFile(), e);
+            }
+        }
+        return testPoints;
+    }
+
+    public synchronized String getRunId() {
+        return isDone(Step.RUN) ? state.getProperty("runId") : null;
+    }
+
+    public synchronized void recordPlan(String planId, String rootSuiteId) {
+        state.setProperty("planId", planId);
+        state.setProperty("rootSuiteId", rootSuiteId == null ? "" : rootSuiteId);
+        advance(Step.PLAN);
+    }
+
+    public synchronized void recordSuite(String suiteId) {
+        state.setProperty("suiteId", suiteId);
+        advance(Step.SUITE);
+    }
+
+    public synchronized void recordPoints(TestPoints testPoints) {
+        this.testPoints = testPoints;
+        if (file != null) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 * testPoints.size() + 4);
+            try (DataOutputStream data = new DataOutputStream(new BufferedOutputStream(bytes))) {
+                testPoints.writeTo(data);
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to write checkpoint points: " + getPointsFile(), e);
+            }
+            DurableFiles.writeDurably(getPointsFile(), bytes.toByteArray());
+        }
+        advance(Step.POINTS);
+    }
+
+    public synchronized void recordRun(String runId) {
+        state.setProperty("runId", runId);
+        advance(Step.RUN);
+    }
+
+    public synchronized void recordUploaded() {
+        advance(Step.UPLOADED);
+    }
+
+    private void advance(Step step) {
+        if (getStep().compareTo(step) < 0) {
+            state.setProperty("step", step.name());
+        }
+        save();
+        LOGGER.info("Marking checkpoint at step: " + step);
+    }
+
+    private void save() {
+        if (file == null) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (Writer writer = new java.io.OutputStreamWriter(bytes, StandardCharsets.UTF_8)) {
+            state.store(writer, "Azure marking progress");
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write marking checkpoint: " + file, e);
+        }
+        DurableFiles.writeDurably(file, bytes.toByteArray());
+    }
+
+    private Path getPointsFile() {
+        return Paths.get(file + ".points");
+    }
+}
@@ -0,0 +1,97 @@
+package hooks;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Results of a test run, stored in arrays indexed by the position of the point in the run.
+ * Results are serialized straight to the update run payload with the Jackson streaming generator.
+ */
+public class PointResultStore {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String DEFAULT_COMMENT = "Test Case run by Automation";
+    private static final String COMPLETED_STATE = "Completed";
+
+    private final TestPoints testPoints;
+    private final boolean[] completed;
+    private final String[] outcomes;
+    private final String[] comments;
+
+    public PointResultStore(TestPoints testPoints) {
+        this.testPoints = testPoints;
+        this.completed = new boolean[testPoints.size()];
+        this.outcomes = new String[testPoints.size()];
+        this.comments = new String[testPoints.size()];
+    }
+
+    public TestPoints getTestPoints() {
+        return testPoints;
+    }
+
+    public int size() {
+        return completed.length;
+    }
+
+    public int complete(int testCaseId, String outcome, String comment) {
+        int pointId = testPoints.getPointId(testCaseId);
+        if (pointId == TestPoints.NOT_FOUND) {
+            return TestPoints.NOT_FOUND;
+        }
+        int pointIndex = testPoints.indexOf(pointId);
+        completed[pointIndex] = true;
+        outcomes[pointIndex] = outcome;
+        comments[pointIndex] = comment;
+        return pointIndex;
+    }
+
+    public boolean isCompleted(int pointIndex) {
+        return completed[pointIndex];
+    }
+
+    public String getOutcome(int pointIndex) {
+        return completed[pointIndex] ? outcomes[pointIndex] : "";
+    }
+
+    public String getComment(int pointIndex) {
+        return completed[pointIndex] ? comments[pointIndex] : DEFAULT_COMMENT;
+    }
+
+    public int[] allPointIndexes() {
+        int[] pointIndexes = new int[completed.length];
+        for (int i = 0; i < pointIndexes.length; i++) {
+            pointIndexes[i] = i;
+        }
+        return pointIndexes;
+    }
+
+    public void writeTo(OutputStream out, int[] pointIndexes, int from, int to) throws IOException {
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            for (int i = from; i < to; i++) {
+                int pointIndex = pointIndexes[i];
+                generator.writeStartObject();
+                generator.writeNumberField("id", AzureService.getResultId(pointIndex));
+                generator.writeStringField("state", completed[pointIndex] ? COMPLETED_STATE : "");
+                generator.writeStringField("outcome", getOutcome(pointIndex));
+                generator.writeStringField("comment", getComment(pointIndex));
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    public byte[] toJson(int[] pointIndexes, int from, int to) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128 * (to - from) + 2);
+        try {
+            writeTo(out, pointIndexes, from, to);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write result json", e);
+        }
+        return out.toByteArray();
+    }
+}
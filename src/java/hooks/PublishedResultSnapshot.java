@@ -0,0 +1,265 @@
+package hooks;
+
+import utils.DurableFiles;
+import utils.IntList;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Last state published to a test run for each of its points, kept on disk so reruns against the same RUN_ID
+ * only send the points whose outcome or comment changed. The state of a point is kept as a 64 bit hash, the Report
+ * Portal launch link at the end of the comment is left out of it.
+ *
+ * Every accepted chunk appends one fsync'd record (point IDs and hashes) to the log next to the snapshot, so
+ * parallel uploads only write what they published and their fsyncs overlap. The log is compacted into the snapshot
+ * when it outgrows it and when the service shuts down. Loading replays the log over the snapshot.
+ */
+public class PublishedResultSnapshot {
+    private static final Logger LOGGER = Logger.getLogger(PublishedResultSnapshot.class.getName());
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final int ENTRY_SIZE = 12;
+
+    private final Path file;
+    private final Path logFile;
+    private final TestPoints testPoints;
+    private final boolean[] published;
+    private final long[] publishedHashes;
+    // Appends share the read lock, so their fsyncs run concurrently, compaction takes the write lock
+    private final ReadWriteLock logLock = new ReentrantReadWriteLock();
+    private FileChannel log;
+    private int publishedCount;
+    private long logEntries;
+
+    private PublishedResultSnapshot(Path file, TestPoints testPoints) {
+        this.file = file;
+        this.logFile = Paths.get(file + ".log");
+        this.testPoints = testPoints;
+        this.published = new boolean[testPoints.size()];
+        this.publishedHashes = new long[testPoints.size()];
+    }
+
+    public static PublishedResultSnapshot load(Path directory, String runId, TestPoints testPoints) {
+        PublishedResultSnapshot snapshot = new PublishedResultSnapshot(directory.resolve(runId + ".snapshot"), testPoints);
+        try {
+            if (Files.exists(snapshot.file)) {
+                try (InputStream in = Files.newInputStream(snapshot.file)) {
+                    DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+                    int count = data.readInt();
+                    for (int i = 0; i < count; i++) {
+                        snapshot.load(data.readInt(), data.readLong());
+                    }
+                }
+            }
+            if (Files.exists(snapshot.logFile)) {
+                snapshot.replayLog();
+            }
+        } catch (IOException e) {
+            LOGGER.info("Ignoring unreadable published result snapshot " + snapshot.file + ", all results are sent: " + e);
+            return new PublishedResultSnapshot(snapshot.file, testPoints);
+        }
+        LOGGER.info("Loaded published state of " + snapshot.publishedCount + " points of run: " + runId);
+        return snapshot;
+    }
+
+    /**
+     * Completed points among pointIndexes whose outcome or comment differ from the last published ones.
+     */
+    public synchronized int[] changedPointIndexes(PointResultStore results, int[] pointIndexes) {
+        IntList changed = new IntList(Math.min(pointIndexes.length, 1024));
+        for (int pointIndex : pointIndexes) {
+            if (results.isCompleted(pointIndex)
+                    && (!published[pointIndex] || publishedHashes[pointIndex] != hash(results, pointIndex))) {
+                changed.add(pointIndex);
+            }
+        }
+        return changed.toArray();
+    }
+
+    public synchronized void markPublished(PointResultStore results, int[] pointIndexes) {
+        markPublished(results, pointIndexes, 0, pointIndexes.length);
+    }
+
+    public synchronized void markPublished(PointResultStore results, int[] pointIndexes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int pointIndex = pointIndexes[i];
+            mark(pointIndex, hash(results, pointIndex));
+        }
+    }
+
+    /**
+     * Marks the points as published and makes it durable by appending them to the log.
+     */
+    public void appendPublished(PointResultStore results, int[] pointIndexes, int from, int to) {
+        logLock.readLock().lock();
+        try {
+            ByteBuffer record = ByteBuffer.allocate(4 + ENTRY_SIZE * (to - from) + 4);
+            record.putInt(to - from);
+            synchronized (this) {
+                for (int i = from; i < to; i++) {
+                    int pointIndex = pointIndexes[i];
+                    long hash = hash(results, pointIndex);
+                    mark(pointIndex, hash);
+                    record.putInt(testPoints.getPointIDs()[pointIndex]).putLong(hash);
+                }
+                logEntries += to - from;
+            }
+            record.putInt(checksum(record.array(), 4, ENTRY_SIZE * (to - from)));
+            record.flip();
+            FileChannel channel = openLog();
+            // Only the write is serialized, the fsyncs of parallel chunks overlap
+            synchronized (channel) {
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            // Losing the record only makes the next upload send these results again
+            LOGGER.info("Unable to append to published result log " + logFile + ": " + e);
+        } finally {
+            logLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compacts the log into the snapshot once it holds more entries than the snapshot, so compaction stays
+     * proportional to the appended entries.
+     */
+    public void compactIfLogExceedsSnapshot() {
+        boolean compact;
+        synchronized (this) {
+            compact = logEntries > 0 && logEntries >= publishedCount;
+        }
+        if (compact) {
+            compact();
+        }
+    }
+
+    /**
+     * Writes the whole state durably to the snapshot and removes the log.
+     */
+    public void compact() {
+        logLock.writeLock().lock();
+        try {
+            ByteBuffer content;
+            synchronized (this) {
+                content = ByteBuffer.allocate(4 + ENTRY_SIZE * publishedCount);
+                content.putInt(publishedCount);
+                for (int i = 0; i < published.length; i++) {
+                    if (published[i]) {
+                        content.putInt(testPoints.getPointIDs()[i]);
+                        content.putLong(publishedHashes[i]);
+                    }
+                }
+                logEntries = 0;
+            }
+            DurableFiles.writeDurably(file, content.array());
+            if (log != null) {
+                log.close();
+                log = null;
+            }
+            Files.deleteIfExists(logFile);
+        } catch (IOException | RuntimeException e) {
+            // The log is kept when the snapshot could not be written, it is replayed by the next load
+            LOGGER.info("Unable to compact published result snapshot " + file + ": " + e);
+        } finally {
+            logLock.writeLock().unlock();
+        }
+    }
+
+    private void mark(int pointIndex, long hash) {
+        if (!published[pointIndex]) {
+            published[pointIndex] = true;
+            publishedCount++;
+        }
+        publishedHashes[pointIndex] = hash;
+    }
+
+    private void load(int pointId, long hash) {
+        // Points no longer in the run are dropped
+        int pointIndex = testPoints.indexOf(pointId);
+        if (pointIndex != TestPoints.NOT_FOUND) {
+            mark(pointIndex, hash);
+        }
+    }
+
+    private void replayLog() throws IOException {
+        ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(logFile));
+        int validLength = 0;
+        while (content.remaining() >= 4) {
+            int count = content.getInt();
+            // A record torn by a crash ends the log
+            if (count < 0 || content.remaining() < (long) ENTRY_SIZE * count + 4) {
+                break;
+            }
+            int entries = content.position();
+            content.position(entries + ENTRY_SIZE * count);
+            if (content.getInt() != checksum(content.array(), entries, ENTRY_SIZE * count)) {
+                break;
+            }
+            content.position(entries);
+            for (int i = 0; i < count; i++) {
+                load(content.getInt(), content.getLong());
+            }
+            content.getInt();
+            logEntries += count;
+            validLength = content.position();
+        }
+        if (validLength < content.limit()) {
+            // New records are appended after the last complete one, not after the torn bytes
+            try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+    }
+
+    private synchronized FileChannel openLog() throws IOException {
+        if (log == null) {
+            Files.createDirectories(logFile.toAbsolutePath().getParent());
+            boolean created = !Files.exists(logFile);
+            log = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            if (created) {
+                DurableFiles.syncDirectory(logFile.toAbsolutePath().getParent());
+            }
+        }
+        return log;
+    }
+
+    private static int checksum(byte[] content, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(content, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private static long hash(PointResultStore results, int pointIndex) {
+        String outcome = results.getOutcome(pointIndex);
+        long hash = hash(FNV_OFFSET_BASIS, outcome, outcome.length());
+        hash = (hash ^ '\n') * FNV_PRIME;
+        // The launch URL differs on every run, a result is only sent again when its comment changed before the link
+        String comment = results.getComment(pointIndex);
+        int link = comment.indexOf(AzureService.REPORT_PORTAL_LINK);
+        return hash(hash, comment, link < 0 ? comment.length() : link);
+    }
+
+    private static long hash(long hash, String value, int length) {
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            hash = (hash ^ (c & 0xff)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,234 @@
+package hooks;
+
+import utils.DurableFiles;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Local cache of the plan, suite and point resolution, kept between runs so repeated runs with the same
+ * configuration reuse the plan and suite instead of creating new ones. Entries are keyed by a hash of the
+ * server URL, plan name, suite name and suite query and expire after a TTL. Cached points are only reused
+ * after Azure confirms them with 304 Not Modified to a conditional request.
+ */
+public class ResolutionCache {
+    private static final Logger LOGGER = Logger.getLogger(ResolutionCache.class.getName());
+
+    private final Path directory;
+    private final String key;
+    private final long ttlMs;
+
+    public ResolutionCache(Path directory, String key, long ttlMs) {
+        this.directory = directory;
+        this.key = key;
+        this.ttlMs = ttlMs;
+    }
+
+    public static ResolutionCache forConfig(AzureConfig azureConfig, String suiteQuery) {
+        String key = hash(azureConfig.getServerUrl() + "\n" + azureConfig.getPlanName() + "\n"
+                + azureConfig.getSuiteName() + "\n" + suiteQuery);
+        return new ResolutionCache(Paths.get(azureConfig.getResolutionCacheDir()), key,
+                TimeUnit.HOURS.toMillis(azureConfig.getResolutionCacheTtlHours()));
+    }
+
+    public boolean isEnabled() {
+        return ttlMs > 0;
+    }
+
+    /**
+     * Cached plan ID and root suite ID, or null when there is no fresh entry.
+     */
+    public String[] getPlan() {
+        Properties entry = readEntry();
+        if (entry == null || entry.getProperty("planId") == null) {
+            return null;
+        }
+        LOGGER.info("Using cached test plan ID: " + entry.getProperty("planId"));
+        return new String[]{entry.getProperty("planId"), entry.getProperty("rootSuiteId", "")};
+    }
+
+    public void putPlan(String planId, String rootSuiteId) {
+        if (!isEnabled()) {
+            return;
+        }
+        // A new plan starts a new entry, suites and points of the previous plan no longer apply
+        Properties entry = new Properties();
+        entry.setProperty("planId", planId);
+        entry.setProperty("rootSuiteId", rootSuiteId == null ? "" : rootSuiteId);
+        entry.setProperty("resolvedAt", String.valueOf(System.currentTimeMillis()));
+        writeEntry(entry);
+    }
+
+    /**
+     * Cached suite ID of the plan, or null when there is no fresh entry for it.
+     */
+    public String getSuiteId(String planId) {
+        Properties entry = readEntry();
+        if (entry == null || !planId.equals(entry.getProperty("planId")) || entry.getProperty("suiteId") == null) {
+            return null;
+        }
+        LOGGER.info("Using cached test suite ID: " + entry.getProperty("suiteId"));
+        return entry.getProperty("suiteId");
+    }
+
+    public void putSuite(String planId, String suiteId) {
+        if (!isEnabled()) {
+            return;
+        }
+        Properties entry = readEntry();
+        if (entry == null || !planId.equals(entry.getProperty("planId"))) {
+            entry = new Properties();
+            entry.setProperty("planId", planId);
+            entry.setProperty("resolvedAt", String.valueOf(System.currentTimeMillis()));
+        }
+        entry.setProperty("suiteId", suiteId);
+        writeEntry(entry);
+    }
+
+    /**
+     * Cached point map of the suite with the validators it was fetched with, or null when there is no fresh entry.
+     */
+    public CachedPoints getPoints(String planId, String suiteId) {
+        Path file = getPointsFile(planId, suiteId);
+        if (!isEnabled() || !isFresh(file)) {
+            return null;
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+            String etag = data.readUTF();
+            String lastModified = data.readUTF();
+            return new CachedPoints(TestPoints.readFrom(data), etag.isEmpty() ? null : etag,
+                    lastModified.isEmpty() ? null : lastModified);
+        } catch (IOException e) {
+            LOGGER.info("Ignoring unreadable cached points " + file + ": " + e);
+            return null;
+        }
+    }
+
+    public void putPoints(String planId, String suiteId, TestPoints testPoints, String etag, String lastModified) {
+        if (!isEnabled() || (etag == null && lastModified == null)) {
+            // Without a validator the points could never be confirmed, so they are not cached
+            return;
+        }
+        writeAtomically(getPointsFile(planId, suiteId), out -> {
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+            data.writeUTF(etag == null ? "" : etag);
+            data.writeUTF(lastModified == null ? "" : lastModified);
+            testPoints.writeTo(data);
+            data.flush();
+        });
+    }
+
+    /**
+     * Refreshes the expiry of cached points confirmed by Azure.
+     */
+    public void touchPoints(String planId, String suiteId) {
+        try {
+            Files.setLastModifiedTime(getPointsFile(planId, suiteId), FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            LOGGER.info("Unable to refresh cached points: " + e);
+        }
+    }
+
+    private Properties readEntry() {
+        Path file = directory.resolve(key + ".properties");
+        if (!isEnabled() || !Files.exists(file)) {
+            return null;
+        }
+        Properties entry = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            entry.load(reader);
+        } catch (IOException e) {
+            LOGGER.info("Ignoring unreadable resolution cache " + file + ": " + e);
+            return null;
+        }
+        long resolvedAt = Long.parseLong(entry.getProperty("resolvedAt", "0"));
+        if (System.currentTimeMillis() - resolvedAt > ttlMs) {
+            LOGGER.info("Resolution cache entry expired: " + file);
+            return null;
+        }
+        return entry;
+    }
+
+    private void writeEntry(Properties entry) {
+        writeAtomically(directory.resolve(key + ".properties"), out -> {
+            try (Writer writer = new java.io.OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+                entry.store(writer, "Azure plan and suite resolution");
+            }
+        });
+    }
+
+    private boolean isFresh(Path file) {
+        try {
+            return Files.exists(file) && System.currentTimeMillis() - Files.getLastModifiedTime(file).toMillis() <= ttlMs;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private Path getPointsFile(String planId, String suiteId) {
+        return directory.resolve(key + "-" + planId + "-" + suiteId + ".points");
+    }
+
+    private void writeAtomically(Path file, DurableFiles.Content content) {
+        try {
+            DurableFiles.writeDurably(file, content);
+        } catch (RuntimeException e) {
+            // The cache is an optimization, a failed write only costs the next run the setup calls
+            LOGGER.info("Unable to write resolution cache " + file + ": " + e.getCause());
+        }
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(16);
+            for (int i = 0; i < 8; i++) {
+                hex.append(String.format("%02x", digest[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Unable to hash Azure config", e);
+        }
+    }
+
+
+    public static class CachedPoints {
+        private final TestPoints testPoints;
+        private final String etag;
+        private final String lastModified;
+
+        CachedPoints(TestPoints testPoints, String etag, String lastModified) {
+            this.testPoints = testPoints;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        public TestPoints getTestPoints() {
+            return testPoints;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+    }
+}
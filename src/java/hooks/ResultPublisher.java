@@ -0,0 +1,117 @@
+package hooks;
+
+import utils.IntList;
+import utils.ScenarioResult;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Publishes scenario outcomes to an already created Azure test run while the suite is running.
+ * Results are sent in micro batches once the batch size is reached or the publish interval has passed.
+ */
+public class ResultPublisher {
+    private static final Logger LOGGER = Logger.getLogger(ResultPublisher.class.getName());
+
+    private final AzureService azureService;
+    private final String runId;
+    private final PointResultStore results;
+    private final int batchSize;
+    private final Queue<ScenarioResult> pendingResults = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    // Points of the current batch, kept until they are accepted by Azure so failed batches are resent
+    private final IntList batch = new IntList(64);
+    private final boolean[] inBatch;
+    private final ScheduledExecutorService executor;
+
+    public ResultPublisher(AzureService azureService, String runId, TestPoints testPoints, int batchSize, int intervalSec) {
+        this.azureService = azureService;
+        this.runId = runId;
+        this.results = new PointResultStore(testPoints);
+        this.inBatch = new boolean[testPoints.size()];
+        this.batchSize = Math.max(1, batchSize);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "azure-result-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flush, intervalSec, intervalSec, TimeUnit.SECONDS);
+        LOGGER.info("Publishing results to run: " + runId + " in batches of " + this.batchSize + " every " + intervalSec + "s");
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public void publish(ScenarioResult result) {
+        pendingResults.add(result);
+        if (pendingCount.incrementAndGet() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Stops the periodic publishing and flushes the remaining results.
+     * Returns false when some results could not be published, they then have to be marked another way.
+     */
+    public boolean close() {
+        LOGGER.info("Flush remaining results to run: " + runId);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!flush()) {
+            LOGGER.severe("Unable to publish " + batch.size() + " results to run: " + runId);
+            return false;
+        }
+        return true;
+    }
+
+    private synchronized boolean flush() {
+        flushScheduled.set(false);
+        ScenarioResult result;
+        int drained = 0;
+        while ((result = pendingResults.poll()) != null) {
+            drained++;
+            for (int tcID : result.getTestCaseIds()) {
+                // The latest outcome of a point wins within a batch
+                int pointIndex = results.complete(tcID, result.getStatus(), azureService.getResultComment(tcID, result));
+                if (pointIndex != TestPoints.NOT_FOUND && !inBatch[pointIndex]) {
+                    inBatch[pointIndex] = true;
+                    batch.add(pointIndex);
+                }
+            }
+        }
+        pendingCount.addAndGet(-drained);
+        if (batch.size() == 0) {
+            return true;
+        }
+
+        try {
+            LOGGER.info("Publishing " + batch.size() + " results to run: " + runId);
+            azureService.updateTestResults(runId, results, batch.toArray());
+            for (int i = 0; i < batch.size(); i++) {
+                inBatch[batch.get(i)] = false;
+            }
+            batch.clear();
+            return true;
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Unable to publish results batch to run: " + runId + ", it is retried with the next batch", e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package hooks;
+
+import kong.unirest.HttpResponse;
+import kong.unirest.UnirestException;
+import utils.Metrics;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Logger;
+
+/**
+ * Uploads test results of a run in chunks, with bounded parallelism.
+ * Throttled (429) and server side (5xx) failures are retried with exponential backoff, honoring Retry-After.
+ */
+public class ResultUploader {
+    private static final Logger LOGGER = Logger.getLogger(ResultUploader.class.getName());
+    private static final long MAX_BACKOFF_MS = 60_000;
+    private static final Metrics.Timer RESULT_JSON_TIMER = Metrics.timer("result_json_build");
+    private static final Metrics.Counter RESULTS_UPLOADED = Metrics.counter("results_uploaded");
+    private static final Metrics.Counter RETRIES = Metrics.counter("upload_retries");
+
+    private final AzureService azureService;
+    private final int chunkSize;
+    private final int parallelism;
+    private final int maxRetries;
+    private final long initialBackoffMs;
+
+    public ResultUploader(AzureService azureService, int chunkSize, int parallelism, int maxRetries, long initialBackoffMs) {
+        this.azureService = azureService;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.parallelism = Math.max(1, parallelism);
+        this.maxRetries = Math.max(0, maxRetries);
+        this.initialBackoffMs = Math.max(1, initialBackoffMs);
+    }
+
+    /**
+     * Called from the upload threads when Azure accepted the results of pointIndexes[from, to).
+     */
+    public interface ChunkListener {
+        void uploaded(int[] pointIndexes, int from, int to);
+    }
+
+    public List<ChunkReport> upload(String runId, PointResultStore store, int[] pointIndexes) {
+        return upload(runId, store, pointIndexes, null);
+    }
+
+    public List<ChunkReport> upload(String runId, PointResultStore store, int[] pointIndexes, ChunkListener listener) {
+        int chunkCount = (pointIndexes.length + chunkSize - 1) / chunkSize;
+        LOGGER.info("Uploading " + pointIndexes.length + " results to run: " + runId + " in " + chunkCount + " chunks");
+        List<ChunkReport> reports = new ArrayList<>();
+        if (chunkCount == 0) {
+            return reports;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, chunkCount));
+        try {
+            List<Future<ChunkReport>> futures = new ArrayList<>();
+            for (int i = 0; i < chunkCount; i++) {
+                int index = i;
+                int from = i * chunkSize;
+                int to = Math.min(from + chunkSize, pointIndexes.length);
+                // Chunks are serialized by the upload threads, so only the chunks in flight are held in memory
+                Callable<ChunkReport> task = () -> {
+                    long start = System.nanoTime();
+                    byte[] chunkJson = store.toJson(pointIndexes, from, to);
+                    RESULT_JSON_TIMER.recordSince(start);
+                    ChunkReport report = uploadChunk(runId, index, to - from, chunkJson);
+                    if (listener != null && report.isSuccess()) {
+                        listener.uploaded(pointIndexes, from, to);
+                    }
+                    return report;
+                };
+                futures.add(executor.submit(task));
+            }
+            for (Future<ChunkReport> future : futures) {
+                reports.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while uploading results to run: " + runId, e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Unable to upload results to run: " + runId, e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        logReports(runId, reports);
+        for (ChunkReport report : reports) {
+            if (!report.isSuccess()) {
+                throw new RuntimeException("Unable to Update the results in run: " + runId + ", chunk " + report.getIndex()
+                        + " failed with status: " + report.getStatus());
+            }
+        }
+        return reports;
+    }
+
+    private ChunkReport uploadChunk(String runId, int index, int size, byte[] chunkJson) throws InterruptedException {
+        long start = System.nanoTime();
+        int status = 0;
+        int attempt = 0;
+        while (true) {
+            attempt++;
+            String retryAfter = null;
+            try {
+                HttpResponse<String> apiResponse = azureService.sendTestResults(runId, chunkJson);
+                status = apiResponse.getStatus();
+                if (apiResponse.isSuccess() || !isRetryable(status)) {
+                    break;
+                }
+                retryAfter = apiResponse.getHeaders().getFirst("Retry-After");
+            } catch (UnirestException e) {
+                LOGGER.info("Chunk " + index + " of run: " + runId + " failed on attempt " + attempt + ": " + e);
+                status = 0;
+            }
+            if (attempt > maxRetries) {
+                break;
+            }
+            RETRIES.increment();
+            long delayMs = getRetryDelayMs(attempt, retryAfter);
+            LOGGER.info("Retrying chunk " + index + " of run: " + runId + " in " + delayMs + "ms, status: " + status);
+            Thread.sleep(delayMs);
+        }
+        long latencyMs = (System.nanoTime() - start) / 1_000_000;
+        if (status >= 200 && status < 300) {
+            RESULTS_UPLOADED.add(size);
+        }
+        return new ChunkReport(index, size, attempt, status, latencyMs);
+    }
+
+    private boolean isRetryable(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    private long getRetryDelayMs(int attempt, String retryAfter) {
+        if (retryAfter != null) {
+            try {
+                return Math.min(MAX_BACKOFF_MS, Long.parseLong(retryAfter.trim()) * 1000);
+            } catch (NumberFormatException e) {
+                LOGGER.info("Ignoring non numeric Retry-After header: " + retryAfter);
+            }
+        }
+        long backoff = Math.min(MAX_BACKOFF_MS, initialBackoffMs << Math.min(attempt - 1, 16));
+        // Jitter keeps parallel chunks from retrying in lock step
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    private void logReports(String runId, List<ChunkReport> reports) {
+        int succeeded = 0;
+        long totalLatencyMs = 0;
+        for (ChunkReport report : reports) {
+            LOGGER.info("Run: " + runId + " " + report);
+            if (report.isSuccess()) {
+                succeeded++;
+            }
+            totalLatencyMs += report.getLatencyMs();
+        }
+        LOGGER.info("Uploaded " + succeeded + "/" + reports.size() + " chunks to run: " + runId
+                + ", total chunk latency: " + totalLatencyMs + "ms");
+    }
+
+    public static class ChunkReport {
+        private final int index;
+        private final int size;
+        private final int attempts;
+        private final int status;
+        private final long latencyMs;
+
+        public ChunkReport(int index, int size, int attempts, int status, long latencyMs) {
+            this.index = index;
+            this.size = size;
+            this.attempts = attempts;
+            this.status = status;
+            this.latencyMs = latencyMs;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public long getLatencyMs() {
+            return latencyMs;
+        }
+
+        public boolean isSuccess() {
+            return status >= 200 && status < 300;
+        }
+
+        @Override
+        public String toString() {
+            return "chunk " + index + ": " + size + " results, status " + status + ", attempts " + attempts + ", latency " + latencyMs + "ms";
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package hooks;
+
+import java.nio.file.Paths;
+
+/**
+ * Holds the Azure config, client and service shared by the Runner hooks and ExcelUtil.
+ * Each of them is created once, on first use, and reused by every worker thread.
+ */
+public final class ServiceRegistry {
+    private static final String AZURE_CONFIG_PATH = "./resources/configuration/azure_config.json";
+
+    private static AzureConfig azureConfig;
+    private static AzureClient azureClient;
+    private static AzureService azureService;
+    private static AsyncAzureService asyncAzureService;
+    private static final TestCaseTagIndex testCaseTagIndex = new TestCaseTagIndex();
+
+    private ServiceRegistry() {
+    }
+
+    public static synchronized AzureConfig getAzureConfig() {
+        if (azureConfig == null) {
+            azureConfig = AzureConfig.load(Paths.get(AZURE_CONFIG_PATH));
+        }
+        return azureConfig;
+    }
+
+    public static synchronized AzureClient getAzureClient() {
+        if (azureClient == null) {
+            AzureConfig config = getAzureConfig();
+            azureClient = new AzureClient(config.getServerUrl(), config.getPat(), config.getHttpMaxConnections(),
+                    config.getHttpConnectTimeoutMs(), config.getHttpSocketTimeoutMs(), config.getHttpConnectionTtlSec());
+        }
+        return azureClient;
+    }
+
+    public static synchronized AzureService getAzureService() {
+        if (azureService == null) {
+            azureService = new AzureService(getAzureConfig(), getAzureClient());
+        }
+        return azureService;
+    }
+
+    public static synchronized AsyncAzureService getAsyncAzureService() {
+        if (asyncAzureService == null) {
+            asyncAzureService = new AsyncAzureService(getAzureService(), getAzureConfig().getAsyncStageThreads());
+        }
+        return asyncAzureService;
+    }
+
+    public static TestCaseTagIndex getTestCaseTagIndex() {
+        return testCaseTagIndex;
+    }
+
+    public static synchronized void shutdown() {
+        if (asyncAzureService != null) {
+            asyncAzureService.close();
+            asyncAzureService = null;
+        }
+        if (azureService != null) {
+            azureService.compactPublishedSnapshots();
+            azureService = null;
+        }
+        if (azureClient != null) {
+            azureClient.close();
+            azureClient = null;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package hooks;
+
+/**
+ * Run wide context shared by the hooks, such as the Report Portal launch of the current run.
+ * The launch URL is set by the reporting setup, or passed with -DREPORT_PORTAL_LAUNCH_URL.
+ */
+public final class SessionContext {
+    private static volatile String reportPortalLaunchURL = System.getProperty("REPORT_PORTAL_LAUNCH_URL", "");
+
+    private SessionContext() {
+    }
+
+    public static String getReportPortalLaunchURL() {
+        return reportPortalLaunchURL;
+    }
+
+    public static void setReportPortalLaunchURL(String launchURL) {
+        reportPortalLaunchURL = launchURL == null ? "" : launchURL;
+    }
+}
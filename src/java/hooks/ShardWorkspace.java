@@ -0,0 +1,203 @@
+package hooks;
+
+import utils.DurableFiles;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * Shared directory of a sharded run. The coordinator writes the plan, suite and run IDs and the point map once,
+ * every worker shard appends its results to its own journal and drops a done marker at the end of its suite.
+ */
+public class ShardWorkspace {
+    private static final Logger LOGGER = Logger.getLogger(ShardWorkspace.class.getName());
+    private static final String RUN_FILE = "run.properties";
+    private static final String POINTS_FILE = "points.bin";
+    private static final String JOURNAL_GLOB = "shard-*.journal";
+
+    private final Path directory;
+    private final String shardId;
+
+    public ShardWorkspace(Path directory, String shardId) {
+        this.directory = directory;
+        this.shardId = shardId;
+    }
+
+    /**
+     * Workspace of the current worker shard, configured with the SHARD_DIR and SHARD_ID system properties.
+     * Returns null when the run is not sharded.
+     */
+    public static ShardWorkspace fromSystemProperties() {
+        String shardDir = System.getProperty("SHARD_DIR");
+        if (shardDir == null || shardDir.isEmpty()) {
+            return null;
+        }
+        String shardId = System.getProperty("SHARD_ID");
+        if (shardId == null || shardId.isEmpty()) {
+            shardId = String.valueOf(ProcessHandle.current().pid());
+        }
+        return new ShardWorkspace(Paths.get(shardDir), shardId);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public String getShardId() {
+        return shardId;
+    }
+
+    public Path getJournalPath() {
+        return getShardFile(".journal");
+    }
+
+    /**
+     * File of this shard in the shard directory, e.g. getShardFile("-metrics.json") is shard-&lt;id&gt;-metrics.json.
+     */
+    public Path getShardFile(String suffix) {
+        return directory.resolve("shard-" + shardId + suffix);
+    }
+
+    /**
+     * Metrics file of this shard: shard-&lt;id&gt;-metrics.json in the shard directory, or the configured METRICS_FILE
+     * with the shard ID before its extension when it is shared by all the shards.
+     */
+    public Path getMetricsPath(String metricsFile) {
+        if (metricsFile == null || metricsFile.isEmpty()) {
+            return getShardFile("-metrics.json");
+        }
+        Path path = Paths.get(metricsFile);
+        String name = path.getFileName().toString();
+        int extension = name.lastIndexOf('.');
+        String shardName = extension > 0
+                ? name.substring(0, extension) + ".shard-" + shardId + name.substring(extension)
+                : name + ".shard-" + shardId;
+        return path.resolveSibling(shardName);
+    }
+
+    public void markDone() {
+        try {
+            Files.createDirectories(directory);
+            Files.write(getShardFile(".done"), new byte[0]);
+            LOGGER.info("Shard " + shardId + " is done");
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to mark shard " + shardId + " as done in: " + directory, e);
+        }
+    }
+
+    /**
+     * Deletes the journals, reports and done markers left in the directory by the shards of a previous run.
+     */
+    public int deleteShardFiles() {
+        List<Path> files = listFiles("shard-*");
+        try {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to delete previous shard files in: " + directory, e);
+        }
+        if (!files.isEmpty()) {
+            LOGGER.info("Deleted " + files.size() + " files of previous shards in: " + directory);
+        }
+        return files.size();
+    }
+
+    public int countDoneShards() {
+        return listFiles("shard-*.done").size();
+    }
+
+    public List<Path> listJournals() {
+        return listFiles(JOURNAL_GLOB);
+    }
+
+    public void awaitShards(int shardCount, long timeoutSec) {
+        long deadline = System.nanoTime() + timeoutSec * 1_000_000_000L;
+        int done;
+        while ((done = countDoneShards()) < shardCount) {
+            if (System.nanoTime() > deadline) {
+                throw new RuntimeException("Only " + done + " of " + shardCount + " shards finished within " + timeoutSec + "s");
+            }
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for shards", e);
+            }
+        }
+        LOGGER.info("All " + shardCount + " shards are done");
+    }
+
+    public void writeRun(String planId, String suiteId, String runId) {
+        Properties run = new Properties();
+        run.setProperty("planId", planId);
+        run.setProperty("suiteId", suiteId);
+        run.setProperty("runId", runId);
+        writeAtomically(RUN_FILE, out -> {
+            try (Writer writer = new java.io.OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+                run.store(writer, "Azure test run shared by the shards");
+            }
+        });
+    }
+
+    public Properties readRun() {
+        Properties run = new Properties();
+        try (Reader reader = Files.newBufferedReader(directory.resolve(RUN_FILE), StandardCharsets.UTF_8)) {
+            run.load(reader);
+            return run;
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read shard run details from: " + directory, e);
+        }
+    }
+
+    public void writePoints(TestPoints testPoints) {
+        writeAtomically(POINTS_FILE, out -> {
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+            testPoints.writeTo(data);
+            data.flush();
+        });
+    }
+
+    public TestPoints readPoints() {
+        try (InputStream in = Files.newInputStream(directory.resolve(POINTS_FILE))) {
+            return TestPoints.readFrom(new DataInputStream(new BufferedInputStream(in)));
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read shard point map from: " + directory, e);
+        }
+    }
+
+    private void writeAtomically(String fileName, DurableFiles.Content content) {
+        // Workers and the coordinator never see a partially written file
+        DurableFiles.writeDurably(directory.resolve(fileName), content);
+    }
+
+    private List<Path> listFiles(String glob) {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to list " + glob + " in: " + directory, e);
+        }
+        files.sort(null);
+        return files;
+    }
+}
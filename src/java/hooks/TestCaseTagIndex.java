@@ -0,0 +1,58 @@
+package hooks;
+
+import io.cucumber.java.Scenario;
+import utils.IntList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Azure test case IDs of the scenarios, parsed once per scenario definition from the @TC-&lt;id&gt; / @TC_&lt;id&gt; tags.
+ */
+public class TestCaseTagIndex {
+    private static final Logger LOGGER = Logger.getLogger(TestCaseTagIndex.class.getName());
+    private static final Pattern TEST_CASE_TAG = Pattern.compile("^@?TC[-_](\\d+)$");
+    private static final int[] NO_TEST_CASES = new int[0];
+
+    private final Map<String, int[]> testCaseIdsByScenario = new ConcurrentHashMap<>();
+    private final Set<String> malformedTags = ConcurrentHashMap.newKeySet();
+
+    public int[] getTestCaseIds(Scenario scenario) {
+        return testCaseIdsByScenario.computeIfAbsent(scenario.getId(), id -> parseTags(id, scenario.getSourceTagNames()));
+    }
+
+    public Set<String> getMalformedTags() {
+        return Collections.unmodifiableSet(malformedTags);
+    }
+
+    public int[] parseTags(String scenarioId, Collection<String> tags) {
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("Extracting Test case IDs from scenario: " + scenarioId);
+        }
+        IntList testCaseIds = new IntList(tags.size());
+        Matcher matcher = TEST_CASE_TAG.matcher("");
+        for (String tag : tags) {
+            if (!tag.contains("TC-") && !tag.contains("TC_")) {
+                continue;
+            }
+            if (matcher.reset(tag).matches()) {
+                try {
+                    testCaseIds.add(Integer.parseInt(matcher.group(1)));
+                    continue;
+                } catch (NumberFormatException e) {
+                    // Falls through to the malformed tag warning, the ID does not fit an int
+                }
+            }
+            if (malformedTags.add(tag)) {
+                LOGGER.warning("Malformed test case tag: " + tag + " in scenario: " + scenarioId + ", expected @TC-<id> or @TC_<id>");
+            }
+        }
+        return testCaseIds.size() == 0 ? NO_TEST_CASES : testCaseIds.toArray();
+    }
+}
@@ -0,0 +1,124 @@
+package hooks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import utils.IntList;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * One page of the Get Points API response, parsed incrementally without building a JSON tree.
+ */
+public class TestPointPage {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final int[] pointIDs;
+    private final int[] testCaseIDs;
+    private final String continuationToken;
+    private final String etag;
+    private final String lastModified;
+    private final boolean notModified;
+
+    public TestPointPage(int[] pointIDs, int[] testCaseIDs, String continuationToken) {
+        this(pointIDs, testCaseIDs, continuationToken, null, null, false);
+    }
+
+    private TestPointPage(int[] pointIDs, int[] testCaseIDs, String continuationToken, String etag, String lastModified,
+                          boolean notModified) {
+        this.pointIDs = pointIDs;
+        this.testCaseIDs = testCaseIDs;
+        this.continuationToken = continuationToken;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.notModified = notModified;
+    }
+
+    /**
+     * Page answered with 304 Not Modified to a conditional request, the cached points are still current.
+     */
+    public static TestPointPage notModified(String etag, String lastModified) {
+        return new TestPointPage(new int[0], new int[0], null, etag, lastModified, true);
+    }
+
+    public TestPointPage withValidators(String etag, String lastModified) {
+        return new TestPointPage(pointIDs, testCaseIDs, continuationToken, etag, lastModified, notModified);
+    }
+
+    public int[] getPointIDs() {
+        return pointIDs;
+    }
+
+    public int[] getTestCaseIDs() {
+        return testCaseIDs;
+    }
+
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public boolean isNotModified() {
+        return notModified;
+    }
+
+    public int size() {
+        return pointIDs.length;
+    }
+
+    public static TestPointPage parse(InputStream content, String continuationToken) throws IOException {
+        IntList pointIDs = new IntList(256);
+        IntList testCaseIDs = new IntList(256);
+        try (JsonParser parser = JSON_FACTORY.createParser(content)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Unexpected Get PointIDs API response, expected a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("value".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        parsePoint(parser, pointIDs, testCaseIDs);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return new TestPointPage(pointIDs.toArray(), testCaseIDs.toArray(), continuationToken);
+    }
+
+    private static void parsePoint(JsonParser parser, IntList pointIDs, IntList testCaseIDs) throws IOException {
+        int pointId = TestPoints.NOT_FOUND;
+        int testCaseId = TestPoints.NOT_FOUND;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("id".equals(field)) {
+                pointId = parser.getValueAsInt();
+            } else if ("testCase".equals(field) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String testCaseField = parser.getCurrentName();
+                    parser.nextToken();
+                    if ("id".equals(testCaseField)) {
+                        // The test case ID is sent as a string by some API versions
+                        testCaseId = parser.getValueAsInt();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        pointIDs.add(pointId);
+        testCaseIDs.add(testCaseId);
+    }
+}
@@ -0,0 +1,158 @@
+package hooks;
+
+import utils.IntList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+/**
+ * Iterates the test points of a suite page by page, following the x-ms-continuationtoken header, or moving $skip past
+ * the points received when a page size is configured and no token is returned. With a parallelism above one, pages
+ * are fetched concurrently with $skip/$top. The suite ends at the first empty page, a short page may be a server cap.
+ */
+public class TestPointPager implements Iterator<TestPointPage> {
+    private static final Logger LOGGER = Logger.getLogger(TestPointPager.class.getName());
+
+    private final AzureService azureService;
+    private final String planId;
+    private final String suiteId;
+    private final int pageSize;
+    private final int parallelism;
+    private TestPointPage nextPage;
+    private boolean started;
+    private int skip;
+    private TestPointPage firstPage;
+    private int pageCount;
+
+    public TestPointPager(AzureService azureService, String planId, String suiteId, int pageSize, int parallelism) {
+        this.azureService = azureService;
+        this.planId = planId;
+        this.suiteId = suiteId;
+        this.pageSize = pageSize;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextPage == null && !started) {
+            started = true;
+            fetchNextPage(null);
+        }
+        return nextPage != null;
+    }
+
+    @Override
+    public TestPointPage next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        TestPointPage page = nextPage;
+        nextPage = null;
+        if (firstPage == null) {
+            firstPage = page;
+        }
+        String continuationToken = page.getContinuationToken();
+        if (continuationToken != null && !continuationToken.isEmpty()) {
+            fetchNextPage(continuationToken);
+        } else if (pageSize > 0 && page.size() > 0) {
+            // Azure returns no continuation token when $top is set, the next page starts after the points received
+            skip += page.size();
+            fetchNextPage(null);
+            if (nextPage.size() == 0) {
+                nextPage = null;
+            }
+        }
+        return page;
+    }
+
+    private void fetchNextPage(String continuationToken) {
+        nextPage = azureService.getPointIDsPage(planId, suiteId, continuationToken, continuationToken == null ? skip : 0, pageSize);
+    }
+
+    public TestPoints readAll() {
+        IntList pointIDs = new IntList(1024);
+        IntList testCaseIDs = new IntList(1024);
+        int pages = 0;
+        if (parallelism > 1 && pageSize > 0) {
+            for (TestPointPage page : fetchParallel()) {
+                if (firstPage == null) {
+                    firstPage = page;
+                }
+                pointIDs.addAll(page.getPointIDs());
+                testCaseIDs.addAll(page.getTestCaseIDs());
+                pages++;
+            }
+        } else {
+            while (hasNext()) {
+                TestPointPage page = next();
+                pointIDs.addAll(page.getPointIDs());
+                testCaseIDs.addAll(page.getTestCaseIDs());
+                pages++;
+            }
+        }
+        pageCount = pages;
+        LOGGER.info("Fetched " + pointIDs.size() + " points in " + pages + " pages for suite: " + suiteId);
+        return new TestPoints(pointIDs.toArray(), testCaseIDs.toArray());
+    }
+
+    public TestPointPage getFirstPage() {
+        return firstPage;
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    private List<TestPointPage> fetchParallel() {
+        List<TestPointPage> pages = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            int skip = 0;
+            int top = pageSize;
+            boolean lastPage = false;
+            // Pages are requested in windows of `parallelism`, an empty page marks the end of the suite
+            while (!lastPage) {
+                List<Future<TestPointPage>> window = new ArrayList<>(parallelism);
+                for (int i = 0; i < parallelism; i++) {
+                    int pageSkip = skip + i * top;
+                    int pageTop = top;
+                    window.add(executor.submit(() -> azureService.getPointIDsPage(planId, suiteId, null, pageSkip, pageTop)));
+                }
+                boolean gap = false;
+                int windowTop = top;
+                for (Future<TestPointPage> future : window) {
+                    TestPointPage page = future.get();
+                    if (lastPage || gap) {
+                        continue;
+                    }
+                    if (page.size() == 0) {
+                        lastPage = true;
+                        continue;
+                    }
+                    pages.add(page);
+                    skip += page.size();
+                    if (page.size() < windowTop) {
+                        // The last page, or the server caps $top: the following pages of the window started too far,
+                        // they are requested again from the points received with the smaller page size
+                        gap = true;
+                        top = page.size();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while fetching PointIDs for suite: " + suiteId, e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Unable to Get PointIDs for current run via API", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return pages;
+    }
+}
@@ -0,0 +1,72 @@
+package hooks;
+
+import utils.IntIntMap;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Test points of a suite in the order returned by Azure, indexed by test case ID and by point ID.
+ */
+public class TestPoints {
+    public static final int NOT_FOUND = -1;
+
+    private final int[] pointIDs;
+    private final int[] testCaseIDs;
+    private final IntIntMap testCasePoints;
+    private final IntIntMap pointIndexes;
+
+    public TestPoints(int[] pointIDs, int[] testCaseIDs) {
+        this.pointIDs = pointIDs;
+        this.testCaseIDs = testCaseIDs;
+        this.testCasePoints = new IntIntMap(testCaseIDs.length, NOT_FOUND);
+        this.pointIndexes = new IntIntMap(pointIDs.length, NOT_FOUND);
+        for (int i = 0; i < pointIDs.length; ++i) {
+            testCasePoints.put(testCaseIDs[i], pointIDs[i]);
+            pointIndexes.put(pointIDs[i], i);
+        }
+    }
+
+    public int[] getPointIDs() {
+        return pointIDs;
+    }
+
+    public int[] getTestCaseIDs() {
+        return testCaseIDs;
+    }
+
+    public int size() {
+        return pointIDs.length;
+    }
+
+    public int getPointId(int testCaseId) {
+        return testCasePoints.get(testCaseId);
+    }
+
+    public int indexOf(int pointId) {
+        return pointIndexes.get(pointId);
+    }
+
+    public int testCaseCount() {
+        return testCasePoints.size();
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(pointIDs.length);
+        for (int i = 0; i < pointIDs.length; i++) {
+            out.writeInt(pointIDs[i]);
+            out.writeInt(testCaseIDs[i]);
+        }
+    }
+
+    public static TestPoints readFrom(DataInput in) throws IOException {
+        int count = in.readInt();
+        int[] pointIDs = new int[count];
+        int[] testCaseIDs = new int[count];
+        for (int i = 0; i < count; i++) {
+            pointIDs[i] = in.readInt();
+            testCaseIDs[i] = in.readInt();
+        }
+        return new TestPoints(pointIDs, testCaseIDs);
+    }
+}
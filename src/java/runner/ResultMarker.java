@@ -0,0 +1,71 @@
+package runner;
+
+import hooks.ServiceRegistry;
+import utils.ExcelUtil;
+import utils.ResultMerger;
+import hooks.MarkingCheckpoint;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Marks stored results in Azure outside of the test run, e.g. when Azure was unreachable during the run
+ * or to merge the results of several shards of one logical run.
+ *
+ * Usage: ResultMarker [--policy=latest|worst] [--checkpoint=file] &lt;result journal or workbook&gt;...
+ * The plan, suite and run are taken from the PLAN_ID, ROOT_SUITE_ID, SUITE_ID and RUN_ID system properties, or created.
+ * Marking resumes from the checkpoint, by default the one left next to a single journal by an interrupted test run.
+ */
+public class ResultMarker {
+    private static final Logger LOGGER = Logger.getLogger(ResultMarker.class.getName());
+
+    public static void main(String[] args) {
+        ResultMerger.Policy policy = ResultMerger.Policy.LATEST;
+        List<String> files = new ArrayList<>();
+        String checkpointFile = null;
+        for (String arg : args) {
+            if (arg.startsWith("--policy=")) {
+                policy = ResultMerger.Policy.valueOf(arg.substring("--policy=".length()).toUpperCase());
+            } else if (arg.startsWith("--checkpoint=")) {
+                checkpointFile = arg.substring("--checkpoint=".length());
+            } else {
+                files.add(arg);
+            }
+        }
+        if (files.isEmpty()) {
+            System.err.println("Usage: ResultMarker [--policy=latest|worst] [--checkpoint=file] <result journal or workbook>...");
+            System.err.println("Files are merged in the given order, so the latest result of a test case wins by default");
+            System.exit(2);
+        }
+        if (checkpointFile == null && files.size() == 1 && Files.exists(Paths.get(files.get(0) + ".checkpoint"))) {
+            checkpointFile = files.get(0) + ".checkpoint";
+        }
+
+        try {
+            MarkingCheckpoint checkpoint = checkpointFile == null ? MarkingCheckpoint.none()
+                    : MarkingCheckpoint.load(Paths.get(checkpointFile));
+            new ResultMarker().mark(files, policy, checkpoint);
+        } finally {
+            ServiceRegistry.shutdown();
+        }
+    }
+
+    public void mark(List<String> files, ResultMerger.Policy policy) {
+        mark(files, policy, MarkingCheckpoint.none());
+    }
+
+    public void mark(List<String> files, ResultMerger.Policy policy, MarkingCheckpoint checkpoint) {
+        ResultMerger merger = new ResultMerger(policy);
+        ExcelUtil excelUtil = new ExcelUtil();
+        for (String file : files) {
+            LOGGER.info("Reading stored results: " + file);
+            merger.addAll(excelUtil.readTestRunData(file));
+        }
+        LOGGER.info("Merged " + merger.getScenarioCount() + " scenarios into " + merger.getTestCaseCount()
+                + " test case results with policy: " + policy);
+
+        ServiceRegistry.getAsyncAzureService().markResults(merger.getResults(), checkpoint).join();
+    }
+}
@@ -1,89 +1,194 @@
 package runner;
 
-import hooks.AzureService;
+import hooks.MarkingCheckpoint;
+import hooks.ResultPublisher;
+import hooks.ServiceRegistry;
+import hooks.ShardWorkspace;
 import io.cucumber.java.After;
 import io.cucumber.java.Before;
 import io.cucumber.java.Scenario;
 import io.cucumber.testng.AbstractTestNGCucumberTests;
-import org.junit.After;
-import org.junit.Before;
 import org.testng.annotations.DataProvider;
 import utils.ExcelUtil;
+import utils.Metrics;
+import utils.ScenarioDurationHistory;
+import utils.ScenarioResult;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 
 public class Runner extends AbstractTestNGCucumberTests {
     private static final Logger LOGGER = Logger.getLogger(Runner.class.getName());
-    private static boolean beforeSuite = false;
-    private long scenarioStartTime;
+    private static final AtomicBoolean beforeSuite = new AtomicBoolean(false);
+    private static final CountDownLatch suiteInitialized = new CountDownLatch(1);
+    // Scenarios run on parallel data provider threads, so the start time is tracked per thread
+    private static final ThreadLocal<Long> scenarioStartTime = new ThreadLocal<>();
+    private static volatile ResultPublisher resultPublisher;
+    private static volatile MarkingCheckpoint markingCheckpoint;
+    private static final Metrics.Timer AFTER_SCENARIO_HOOK_TIMER = Metrics.timer("hook_after_scenario");
+    // Set when this JVM is a worker shard, Azure is then only updated by the ShardCoordinator
+    private static final ShardWorkspace shardWorkspace = ShardWorkspace.fromSystemProperties();
+    private static final ScenarioDurationHistory durationHistory = ScenarioDurationHistory.load(Paths.get(
+            System.getProperty("SCENARIO_HISTORY", "./.scenario-history/durations.properties")));
+    private static volatile long predictedMakespanNanos = -1;
+    private static final AtomicLong firstScenarioStart = new AtomicLong(Long.MAX_VALUE);
+    private static final AtomicLong lastScenarioEnd = new AtomicLong(Long.MIN_VALUE);
 
     @Override
     @DataProvider(parallel = true)
     public Object[][] scenarios() {
         Object[][] scenarios = super.scenarios();
-        LOGGER.info(scenarios);
-        return scenarios;
+        LOGGER.info("Scenarios to run: " + scenarios.length);
+        // TestNG hands the scenarios to its data provider threads in this order, so the longest ones start first
+        int threads = Integer.getInteger("dataproviderthreadcount", 10);
+        ScenarioScheduler.Schedule schedule = new ScenarioScheduler(durationHistory, threads).schedule(scenarios);
+        predictedMakespanNanos = schedule.getPredictedMakespanNanos();
+        return schedule.getScenarios();
     }
 
     @Before
     public void before(Scenario scenario) {
-        LOGGER.info("****** beforeScenario");
-        scenarioStartTime = System.currentTimeMillis();
+        LOGGER.fine("****** beforeScenario");
+        long start = System.nanoTime();
+        scenarioStartTime.set(start);
+        firstScenarioStart.accumulateAndGet(start, Math::min);
 
-        if (!beforeSuite) {
-            LOGGER.info("****** beforeSuite");
-            new ExcelUtil().createTestExcelBeforeSuit();
-            LOGGER.info("Initializing after suite hook, based on Java shutdown event");
-            Runtime.getRuntime().addShutdownHook(new Thread() {
-                public void run() {
-                    LOGGER.info("****** afterSuite");
-                    try {
-                        LOGGER.info("****** Mark test case status");
-                        AzureService azureService = new AzureService();
-                        String[] planDetails = createTestPlanIfIDNotProvided(azureService);
-                        String planId = planDetails[0];
-                        String rootSuiteId = planDetails[1];
-                        String suiteId = createTestSuiteIfIDNotProvided(azureService, planId, rootSuiteId);
-                        LOGGER.info("****** Upload test results");
-                        azureService.uploadTestResults(planId, suiteId);
-                    } catch (Exception exception) {
-                        exception.printStackTrace();
-                        LOGGER.info("Unable to mark tests in Azure");
-                    }
+        if (beforeSuite.compareAndSet(false, true)) {
+            try {
+                beforeSuite();
+            } finally {
+                suiteInitialized.countDown();
+            }
+        } else {
+            awaitSuiteInitialized();
+        }
+    }
+
+    private void beforeSuite() {
+        LOGGER.info("****** beforeSuite");
+        if (shardWorkspace != null) {
+            LOGGER.info("****** Running as shard " + shardWorkspace.getShardId() + " of: " + shardWorkspace.getDirectory());
+            new ExcelUtil().createTestExcelBeforeSuit(shardWorkspace.getJournalPath().toString());
+        } else {
+            ExcelUtil excelUtil = new ExcelUtil();
+            excelUtil.createTestExcelBeforeSuit();
+            // Marking progress is kept next to the journal, ResultMarker resumes from it if this JVM dies before marking
+            markingCheckpoint = MarkingCheckpoint.start(Paths.get(excelUtil.getJournalFileName() + ".checkpoint"));
+        }
+        LOGGER.info("Initializing after suite hook, based on Java shutdown event");
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            public void run() {
+                try {
+                    afterSuite();
+                } finally {
+                    writeMetrics();
                 }
-            });
-            beforeSuite = true;
+            }
+        });
+        if (shardWorkspace == null) {
+            startResultPublisher();
         }
     }
 
-    @After
-    public void afterScenario(Scenario scenario) {
-        LOGGER.info("****** afterScenario");
-        long scenarioExecutionTimeSec = (System.currentTimeMillis() - scenarioStartTime) / 1000;
-        new ExcelUtil().writeTestDataExcelAfterScenario(scenario, scenarioExecutionTimeSec);
+    private static void afterSuite() {
+        LOGGER.info("****** afterSuite");
+        saveDurationHistory();
+        try {
+            new ExcelUtil().createTestExcelAfterSuit();
+        } catch (Exception exception) {
+            exception.printStackTrace();
+            LOGGER.info("Unable to write AutomationRun excel");
+        }
+        if (shardWorkspace != null) {
+            shardWorkspace.markDone();
+            return;
+        }
+        try {
+            if (resultPublisher != null) {
+                LOGGER.info("****** Publish remaining test results");
+                if (resultPublisher.close()) {
+                    markingCheckpoint.recordUploaded();
+                    return;
+                }
+                // Results already accepted by the run are in its published snapshot, only the others are sent again
+                LOGGER.severe("Live result publishing failed, marking the results of the suite instead");
+            }
+            LOGGER.info("****** Mark test case status");
+            ServiceRegistry.getAsyncAzureService().markResults(new ExcelUtil().getTestRunData(), markingCheckpoint).join();
+        } catch (Exception exception) {
+            exception.printStackTrace();
+            LOGGER.info("Unable to mark tests in Azure");
+        } finally {
+            ServiceRegistry.shutdown();
+        }
     }
 
-    private String[] createTestPlanIfIDNotProvided(AzureService azureService) {
-        String planId = System.getProperty("PLAN_ID");
-        String rootSuiteId = System.getProperty("ROOT_SUITE_ID");
+    private static void saveDurationHistory() {
+        long firstStart = firstScenarioStart.get();
+        long lastEnd = lastScenarioEnd.get();
+        if (firstStart != Long.MAX_VALUE && lastEnd != Long.MIN_VALUE) {
+            LOGGER.info(String.format("Makespan of the scenarios: %.1fs, predicted: %.1fs",
+                    (lastEnd - firstStart) / 1e9, predictedMakespanNanos / 1e9));
+        }
+        try {
+            durationHistory.save();
+        } catch (Exception exception) {
+            exception.printStackTrace();
+            LOGGER.info("Unable to save scenario durations");
+        }
+    }
+
+    private static void writeMetrics() {
+        // METRICS_FILE ending with .prom is written as Prometheus text, any other name as JSON
+        String metricsFile = System.getProperty("METRICS_FILE");
+        if (shardWorkspace != null) {
+            metricsFile = shardWorkspace.getMetricsPath(metricsFile).toString();
+        } else if (metricsFile == null) {
+            metricsFile = "./target/AutomationRunMetrics" + ExcelUtil.getRunStamp() + ".json";
+        }
+        try {
+            Metrics.writeTo(Paths.get(metricsFile));
+        } catch (Exception exception) {
+            exception.printStackTrace();
+            LOGGER.info("Unable to write metrics");
+        }
+    }
 
-        LOGGER.info("****** Create test plan if plan ID not provided");
-        if (planId == null || planId.isEmpty()) {
-            return azureService.createTestPlan();
+    private void startResultPublisher() {
+        try {
+            LOGGER.info("****** Resolve test plan, suite and run for live result publishing");
+            resultPublisher = ServiceRegistry.getAsyncAzureService().startResultPublisher(markingCheckpoint).join();
+        } catch (Exception exception) {
+            exception.printStackTrace();
+            LOGGER.info("Unable to start live result publishing, results are marked in Azure after the suite");
         }
+    }
 
-        return new String[]{planId, rootSuiteId};
+    @After
+    public void afterScenario(Scenario scenario) {
+        long hookStart = System.nanoTime();
+        LOGGER.fine("****** afterScenario");
+        long end = System.nanoTime();
+        long scenarioExecutionTimeNanos = end - scenarioStartTime.get();
+        scenarioStartTime.remove();
+        lastScenarioEnd.accumulateAndGet(end, Math::max);
+        durationHistory.record(ScenarioDurationHistory.getKey(scenario.getUri(), scenario.getLine()), scenarioExecutionTimeNanos);
+        ScenarioResult result = new ExcelUtil().writeTestDataExcelAfterScenario(scenario, scenarioExecutionTimeNanos);
+        if (resultPublisher != null) {
+            resultPublisher.publish(result);
+        }
+        AFTER_SCENARIO_HOOK_TIMER.recordSince(hookStart);
     }
 
-    private String createTestSuiteIfIDNotProvided(AzureService azureService, String planId, String rootSuiteId) {
-        LOGGER.info("****** Create test suite if suite ID not provided");
-        String suiteId = System.getProperty("SUITE_ID");
-        if (suiteId == null || suiteId.isEmpty()) {
-            if (rootSuiteId == null || rootSuiteId.isEmpty()) {
-                throw new RuntimeException("Error Creating Test Suite: Please provide Root Suite ID");
-            }
-            suiteId = azureService.createTestSuite(planId, rootSuiteId);
+    private void awaitSuiteInitialized() {
+        try {
+            suiteInitialized.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for suite initialization", e);
         }
-        return suiteId;
     }
 }
@@ -0,0 +1,115 @@
+package runner;
+
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import utils.ScenarioDurationHistory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.logging.Logger;
+
+/**
+ * Orders the scenarios of the data provider longest first (LPT), from their durations in the history, so the longest
+ * scenarios do not start last on the parallel data provider threads. Scenarios without history are expected to take
+ * the average duration. The makespan, the wall clock time of the parallel run, is predicted by list scheduling.
+ */
+public class ScenarioScheduler {
+    private static final Logger LOGGER = Logger.getLogger(ScenarioScheduler.class.getName());
+
+    private final ScenarioDurationHistory history;
+    private final int threads;
+
+    public ScenarioScheduler(ScenarioDurationHistory history, int threads) {
+        this.history = history;
+        this.threads = Math.max(1, threads);
+    }
+
+    public static String getKey(Object[] scenario) {
+        Pickle pickle = ((PickleWrapper) scenario[0]).getPickle();
+        return ScenarioDurationHistory.getKey(pickle.getUri(), pickle.getLine());
+    }
+
+    /**
+     * Returns the scenarios longest first, and the predicted makespan of that order in nanoseconds.
+     */
+    public Schedule schedule(Object[][] scenarios) {
+        long[] durations = getExpectedDurations(scenarios);
+        long originalMakespan = predictMakespan(durations);
+
+        Integer[] order = new Integer[scenarios.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        // Stable sort, scenarios with equal durations keep the order given by Cucumber
+        Arrays.sort(order, (a, b) -> Long.compare(durations[b], durations[a]));
+        Object[][] ordered = new Object[scenarios.length][];
+        long[] orderedDurations = new long[scenarios.length];
+        for (int i = 0; i < order.length; i++) {
+            ordered[i] = scenarios[order[i]];
+            orderedDurations[i] = durations[order[i]];
+        }
+        long makespan = predictMakespan(orderedDurations);
+        LOGGER.info(String.format("Scheduled %d scenarios longest first on %d threads, predicted makespan: %.1fs (%.1fs in the original order)",
+                scenarios.length, threads, makespan / 1e9, originalMakespan / 1e9));
+        return new Schedule(ordered, makespan);
+    }
+
+    /**
+     * Makespan of running the durations in order, each on the thread that becomes free first.
+     */
+    public long predictMakespan(long[] durations) {
+        PriorityQueue<Long> threadLoads = new PriorityQueue<>(threads);
+        for (int i = 0; i < threads; i++) {
+            threadLoads.add(0L);
+        }
+        long makespan = 0;
+        for (long duration : durations) {
+            long load = threadLoads.poll() + duration;
+            makespan = Math.max(makespan, load);
+            threadLoads.add(load);
+        }
+        return makespan;
+    }
+
+    private long[] getExpectedDurations(Object[][] scenarios) {
+        long[] durations = new long[scenarios.length];
+        List<Integer> unknown = new ArrayList<>();
+        long knownTotal = 0;
+        for (int i = 0; i < scenarios.length; i++) {
+            durations[i] = history.getDurationNanos(getKey(scenarios[i]));
+            if (durations[i] < 0) {
+                unknown.add(i);
+            } else {
+                knownTotal += durations[i];
+            }
+        }
+        int known = scenarios.length - unknown.size();
+        long average = known == 0 ? 0 : knownTotal / known;
+        for (int i : unknown) {
+            durations[i] = average;
+        }
+        if (!unknown.isEmpty()) {
+            LOGGER.info(unknown.size() + " scenarios have no duration history, expected to take the average: " + average / 1_000_000 + "ms");
+        }
+        return durations;
+    }
+
+    public static class Schedule {
+        private final Object[][] scenarios;
+        private final long predictedMakespanNanos;
+
+        Schedule(Object[][] scenarios, long predictedMakespanNanos) {
+            this.scenarios = scenarios;
+            this.predictedMakespanNanos = predictedMakespanNanos;
+        }
+
+        public Object[][] getScenarios() {
+            return scenarios;
+        }
+
+        public long getPredictedMakespanNanos() {
+            return predictedMakespanNanos;
+        }
+    }
+}
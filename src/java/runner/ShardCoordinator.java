@@ -0,0 +1,121 @@
+package runner;
+
+import hooks.AzureService;
+import hooks.PointResultStore;
+import hooks.ServiceRegistry;
+import hooks.ShardWorkspace;
+import hooks.TestPoints;
+import utils.ExcelUtil;
+import utils.ResultMerger;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * Coordinates a run split across several worker shards, so Azure gets a single plan, suite and run.
+ *
+ * Usage:
+ *   ShardCoordinator prepare &lt;shard dir&gt;
+ *   ShardCoordinator finish &lt;shard dir&gt; --shards=N [--timeout=seconds] [--policy=latest|worst]
+ *
+ * prepare resolves or creates the plan, suite and run once and writes them, with the point map, to the shard directory.
+ * Files left there by the shards of a previous run are deleted first.
+ * Workers run with -DSHARD_DIR=&lt;shard dir&gt; -DSHARD_ID=&lt;id&gt; and only append their results to it.
+ * finish waits for all shards, merges their results and uploads them to the prepared run. The shards run side by side,
+ * so unlike ResultMarker, whose files are given in run order, the worst outcome of a test case wins by default.
+ */
+public class ShardCoordinator {
+    private static final Logger LOGGER = Logger.getLogger(ShardCoordinator.class.getName());
+    private static final String USAGE = "Usage: ShardCoordinator prepare <shard dir> | "
+            + "finish <shard dir> --shards=N [--timeout=seconds] [--policy=latest|worst]\n"
+            + "Shards run side by side, so the worst outcome of a test case wins by default (latest follows shard order)";
+
+    private final ShardWorkspace workspace;
+    private final AzureService azureService;
+
+    public ShardCoordinator(Path shardDir) {
+        this(shardDir, ServiceRegistry.getAzureService());
+    }
+
+    public ShardCoordinator(Path shardDir, AzureService azureService) {
+        this.workspace = new ShardWorkspace(shardDir, "coordinator");
+        this.azureService = azureService;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        int shardCount = 0;
+        long timeoutSec = 3600;
+        ResultMerger.Policy policy = ResultMerger.Policy.WORST;
+        for (int i = 2; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith("--shards=")) {
+                shardCount = Integer.parseInt(arg.substring("--shards=".length()));
+            } else if (arg.startsWith("--timeout=")) {
+                timeoutSec = Long.parseLong(arg.substring("--timeout=".length()));
+            } else if (arg.startsWith("--policy=")) {
+                policy = ResultMerger.Policy.valueOf(arg.substring("--policy=".length()).toUpperCase());
+            }
+        }
+
+        ShardCoordinator coordinator = new ShardCoordinator(Paths.get(args[1]));
+        try {
+            switch (args[0]) {
+                case "prepare":
+                    coordinator.prepare();
+                    break;
+                case "finish":
+                    if (shardCount < 1) {
+                        System.err.println(USAGE);
+                        System.exit(2);
+                    }
+                    coordinator.finish(shardCount, timeoutSec, policy);
+                    break;
+                default:
+                    System.err.println(USAGE);
+                    System.exit(2);
+            }
+        } finally {
+            ServiceRegistry.shutdown();
+        }
+    }
+
+    public String prepare() {
+        // Done markers and journals of a previous run would end the wait at once and be merged into this run
+        workspace.deleteShardFiles();
+        String[] planDetails = azureService.createTestPlanIfIDNotProvided();
+        String planId = planDetails[0];
+        String suiteId = azureService.createTestSuiteIfIDNotProvided(planId, planDetails[1]);
+        TestPoints testPoints = azureService.getPointIDs(planId, suiteId);
+        String runId = azureService.createTestRunIfIDNotProvided(testPoints.getPointIDs(), planId);
+
+        workspace.writePoints(testPoints);
+        workspace.writeRun(planId, suiteId, runId);
+        LOGGER.info("Shard directory " + workspace.getDirectory() + " is prepared for run ID: " + runId
+                + " with " + testPoints.size() + " points");
+        return runId;
+    }
+
+    public void finish(int shardCount, long timeoutSec, ResultMerger.Policy policy) {
+        Properties run = workspace.readRun();
+        String runId = run.getProperty("runId");
+        TestPoints testPoints = workspace.readPoints();
+        workspace.awaitShards(shardCount, timeoutSec);
+
+        ResultMerger merger = new ResultMerger(policy);
+        ExcelUtil excelUtil = new ExcelUtil();
+        for (Path journal : workspace.listJournals()) {
+            LOGGER.info("Reading shard results: " + journal);
+            merger.addAll(excelUtil.readTestRunData(journal.toString()));
+        }
+        LOGGER.info("Merged " + merger.getScenarioCount() + " scenarios of " + shardCount + " shards into "
+                + merger.getTestCaseCount() + " test case results with policy: " + policy);
+
+        PointResultStore results = azureService.createResultStore(testPoints, merger.getResults());
+        azureService.updateTestResults(runId, results, results.allPointIndexes());
+    }
+}
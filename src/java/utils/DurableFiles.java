@@ -0,0 +1,70 @@
+package utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Logger;
+
+/**
+ * Replaces files atomically and durably: the content is written to a temporary file in the same directory, fsync'd,
+ * renamed over the target and the rename is fsync'd with the directory. Readers see the old or the new content,
+ * never a partial file, also after a crash.
+ */
+public final class DurableFiles {
+    private static final Logger LOGGER = Logger.getLogger(DurableFiles.class.getName());
+
+    private DurableFiles() {
+    }
+
+    public interface Content {
+        void write(OutputStream out) throws IOException;
+    }
+
+    public static void writeDurably(Path target, byte[] content) {
+        writeDurably(target, out -> out.write(content));
+    }
+
+    public static void writeDurably(Path target, Content content) {
+        Path directory = target.toAbsolutePath().getParent();
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                content.write(out);
+            }
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory(directory);
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new RuntimeException("Unable to write durably: " + target, e);
+        }
+    }
+
+    public static void syncDirectory(Path directory) {
+        // Makes the rename durable, not supported on every platform
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            LOGGER.fine("Unable to sync directory " + directory + ": " + e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.fine("Unable to delete " + file + ": " + e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package utils;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.logging.Logger;
+
+/**
+ * Writes a report sheet row by row. For .xlsx files only a bounded window of rows is kept in memory (SXSSF),
+ * older rows are flushed to a temporary file. Column widths are computed once, from the longest value of each column.
+ */
+public class ExcelReportWriter implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(ExcelReportWriter.class.getName());
+    private static final int DEFAULT_ROW_WINDOW = 100;
+    private static final int MAX_COLUMN_CHARS = 255;
+    // Header row index, the first row of the sheet is left empty
+    private static final int HEADER_ROW = 1;
+
+    private final String fileName;
+    private final Workbook workbook;
+    private final Sheet sheet;
+    private final int[] maxLengths;
+    private int rowNum = HEADER_ROW;
+
+    public ExcelReportWriter(String fileName, String sheetName, String[] columns) {
+        this(fileName, sheetName, columns, DEFAULT_ROW_WINDOW);
+    }
+
+    public ExcelReportWriter(String fileName, String sheetName, String[] columns, int rowWindow) {
+        this.fileName = fileName;
+        if (fileName.endsWith(".xls")) {
+            // Legacy format, kept in memory and limited to 65,536 rows
+            this.workbook = new HSSFWorkbook();
+        } else {
+            SXSSFWorkbook streamingWorkbook = new SXSSFWorkbook(rowWindow);
+            streamingWorkbook.setCompressTempFiles(true);
+            this.workbook = streamingWorkbook;
+        }
+        this.sheet = workbook.createSheet(sheetName);
+        this.maxLengths = new int[columns.length];
+
+        Font headerFont = workbook.createFont();
+        headerFont.setBold(true);
+        headerFont.setFontHeightInPoints((short) 14);
+        headerFont.setColor(IndexedColors.RED.getIndex());
+
+        CellStyle headerCellStyle = workbook.createCellStyle();
+        headerCellStyle.setFont(headerFont);
+
+        Row headerRow = sheet.createRow(rowNum);
+        for (int i = 0; i < columns.length; i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(columns[i]);
+            cell.setCellStyle(headerCellStyle);
+            trackLength(i, columns[i]);
+        }
+    }
+
+    public void writeRow(String[] values) {
+        Row row = sheet.createRow(++rowNum);
+        for (int i = 0; i < values.length; i++) {
+            row.createCell(i).setCellValue(values[i]);
+            trackLength(i, values[i]);
+        }
+    }
+
+    public int getRowCount() {
+        return rowNum - HEADER_ROW;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            for (int i = 0; i < maxLengths.length; i++) {
+                sheet.setColumnWidth(i, Math.min(MAX_COLUMN_CHARS, maxLengths[i] + 2) * 256);
+            }
+            try (OutputStream fileOut = new FileOutputStream(fileName)) {
+                workbook.write(fileOut);
+            }
+            LOGGER.info("Excel file " + fileName + " is written with " + getRowCount() + " rows");
+        } finally {
+            if (workbook instanceof SXSSFWorkbook) {
+                ((SXSSFWorkbook) workbook).dispose();
+            }
+            workbook.close();
+        }
+    }
+
+    private void trackLength(int column, String value) {
+        if (column < maxLengths.length && value != null && value.length() > maxLengths[column]) {
+            maxLengths[column] = value.length();
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package utils;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.SAXException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads the data rows of a report sheet lazily, as string arrays, after its header row.
+ * .xlsx sheets are pulled from the sheet XML with StAX, so only the current row is held in memory.
+ * Legacy .xls workbooks are loaded by POI but still handed out row by row. The reader must be closed.
+ */
+public class ExcelRowReader implements Iterator<String[]>, AutoCloseable {
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    private final String filePath;
+    private OPCPackage xlsxPackage;
+    private ReadOnlySharedStringsTable sharedStrings;
+    private InputStream sheetStream;
+    private XMLStreamReader sheetXml;
+    private Workbook workbook;
+    private Iterator<Row> workbookRows;
+    private final DataFormatter dataFormatter = new DataFormatter();
+    private final String[] header;
+    private String[] nextRow;
+
+    private ExcelRowReader(String filePath, String sheetName) throws IOException {
+        this.filePath = filePath;
+        try {
+            if (filePath.endsWith(".xls")) {
+                openWorkbook(filePath, sheetName);
+            } else {
+                openXlsx(filePath, sheetName);
+            }
+            this.header = readHeader();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    public static ExcelRowReader open(String filePath, String sheetName) {
+        try {
+            return new ExcelRowReader(filePath, sheetName);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read Excel: " + filePath, e);
+        }
+    }
+
+    public String[] getHeader() {
+        return header.clone();
+    }
+
+    public int getColumnIndex(String headerName) {
+        for (int i = 0; i < header.length; i++) {
+            if (header[i].trim().equalsIgnoreCase(headerName.trim())) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Column '" + headerName + "' not found in Excel: " + filePath);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextRow == null) {
+            nextRow = readRow();
+        }
+        return nextRow != null;
+    }
+
+    @Override
+    public String[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String[] row = nextRow;
+        nextRow = null;
+        return row;
+    }
+
+    public Stream<String[]> rows() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::close);
+    }
+
+    public static String getCell(String[] row, int columnIndex) {
+        return columnIndex < row.length ? row[columnIndex] : "";
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (sheetXml != null) {
+                sheetXml.close();
+            }
+            if (sheetStream != null) {
+                sheetStream.close();
+            }
+            if (xlsxPackage != null) {
+                // Opened read only, nothing is written back
+                xlsxPackage.revert();
+            }
+            if (workbook != null) {
+                workbook.close();
+            }
+        } catch (IOException | XMLStreamException e) {
+            throw new RuntimeException("Unable to close Excel: " + filePath, e);
+        } finally {
+            sheetXml = null;
+            sheetStream = null;
+            xlsxPackage = null;
+            workbook = null;
+        }
+    }
+
+    private void openXlsx(String filePath, String sheetName) throws IOException {
+        try {
+            xlsxPackage = OPCPackage.open(new File(filePath), PackageAccess.READ);
+            sharedStrings = new ReadOnlySharedStringsTable(xlsxPackage);
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) new XSSFReader(xlsxPackage).getSheetsData();
+            while (sheets.hasNext()) {
+                InputStream sheet = sheets.next();
+                if (sheets.getSheetName().equals(sheetName)) {
+                    sheetStream = sheet;
+                    sheetXml = XML_INPUT_FACTORY.createXMLStreamReader(sheetStream);
+                    return;
+                }
+                sheet.close();
+            }
+            throw new IllegalArgumentException("Sheet '" + sheetName + "' not found in Excel: " + filePath);
+        } catch (OpenXML4JException | SAXException | XMLStreamException e) {
+            throw new IOException("Unable to open Excel: " + filePath, e);
+        }
+    }
+
+    private void openWorkbook(String filePath, String sheetName) throws IOException {
+        workbook = WorkbookFactory.create(new File(filePath));
+        Sheet sheet = workbook.getSheet(sheetName);
+        if (sheet == null) {
+            throw new IllegalArgumentException("Sheet '" + sheetName + "' not found in Excel: " + filePath);
+        }
+        workbookRows = sheet.iterator();
+    }
+
+    private String[] readHeader() {
+        // Rows before the header are empty, the header is the first row with content
+        String[] row;
+        while ((row = readRow()) != null) {
+            for (String cell : row) {
+                if (!cell.isEmpty()) {
+                    return row;
+                }
+            }
+        }
+        throw new IllegalArgumentException("No header row found in Excel: " + filePath);
+    }
+
+    private String[] readRow() {
+        if (workbookRows != null) {
+            return workbookRows.hasNext() ? toStrings(workbookRows.next()) : null;
+        }
+        try {
+            while (sheetXml.hasNext()) {
+                if (sheetXml.next() == XMLStreamConstants.START_ELEMENT && "row".equals(sheetXml.getLocalName())) {
+                    return readXlsxRow();
+                }
+            }
+            return null;
+        } catch (XMLStreamException e) {
+            throw new RuntimeException("Unable to read Excel: " + filePath, e);
+        }
+    }
+
+    private String[] readXlsxRow() throws XMLStreamException {
+        List<String> cells = new ArrayList<>();
+        String cellType = null;
+        int cellColumn = 0;
+        StringBuilder cellValue = new StringBuilder();
+        boolean inValue = false;
+        while (sheetXml.hasNext()) {
+            int event = sheetXml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String element = sheetXml.getLocalName();
+                if ("c".equals(element)) {
+                    String reference = sheetXml.getAttributeValue(null, "r");
+                    cellColumn = reference == null ? cells.size() : getColumnIndexFromReference(reference);
+                    cellType = sheetXml.getAttributeValue(null, "t");
+                    cellValue.setLength(0);
+                } else if ("v".equals(element) || "t".equals(element)) {
+                    inValue = true;
+                }
+            } else if (inValue && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)) {
+                cellValue.append(sheetXml.getText());
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                String element = sheetXml.getLocalName();
+                if ("v".equals(element) || "t".equals(element)) {
+                    inValue = false;
+                } else if ("c".equals(element)) {
+                    while (cells.size() < cellColumn) {
+                        cells.add("");
+                    }
+                    cells.add(getXlsxCellValue(cellType, cellValue.toString()));
+                } else if ("row".equals(element)) {
+                    break;
+                }
+            }
+        }
+        return cells.toArray(new String[0]);
+    }
+
+    private String getXlsxCellValue(String cellType, String value) {
+        if ("s".equals(cellType) && !value.isEmpty()) {
+            return sharedStrings.getItemAt(Integer.parseInt(value)).getString();
+        }
+        if ("b".equals(cellType)) {
+            return "1".equals(value) ? "TRUE" : "FALSE";
+        }
+        if (cellType == null || "n".equals(cellType)) {
+            return formatNumber(value);
+        }
+        return value;
+    }
+
+    private static String formatNumber(String value) {
+        // Numbers are stored as doubles ("42.0", "1.0E10"), they are read as the .xls path formats them ("42")
+        try {
+            return value.isEmpty() ? value : new BigDecimal(value).stripTrailingZeros().toPlainString();
+        } catch (NumberFormatException e) {
+            return value;
+        }
+    }
+
+    private String[] toStrings(Row row) {
+        String[] cells = new String[Math.max(0, row.getLastCellNum())];
+        for (int i = 0; i < cells.length; i++) {
+            Cell cell = row.getCell(i);
+            cells[i] = cell == null ? "" : dataFormatter.formatCellValue(cell);
+        }
+        return cells;
+    }
+
+    private static int getColumnIndexFromReference(String reference) {
+        int column = 0;
+        for (int i = 0; i < reference.length() && Character.isLetter(reference.charAt(i)); i++) {
+            column = column * 26 + (Character.toUpperCase(reference.charAt(i)) - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+}
@@ -1,43 +1,145 @@
 package utils;
 
-import hooks.AzureService;
+import hooks.ServiceRegistry;
 import io.cucumber.java.Scenario;
 import org.apache.poi.hssf.usermodel.HSSFRow;
 import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.*;
 import java.io.*;
+import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class ExcelUtil {
     private static final Logger LOGGER = Logger.getLogger(ExcelUtil.class.getName());
-    private static String fileName = "./target/AutomationTestRun" + getCurrentDateStamp() + ".xls";
+    // Date and time the JVM started, a later run on the same day must not truncate the journal of a crashed run
+    private static final String RUN_STAMP = new SimpleDateFormat("yyyy.MM.dd-HH.mm.ss").format(new java.util.Date());
+    private static String fileName = "./target/AutomationTestRun" + RUN_STAMP + ".xlsx";
+    private static String journalFileName = "./target/AutomationTestRun" + RUN_STAMP + ".journal";
+    private static String jsonFileName = "./target/AutomationTestRun" + RUN_STAMP + ".json";
     private static String sheetName = "TestData";
+    private static final String[] COLUMNS = {"Description of Scenario", "Status", "Test Case Ids", "Feature File", "Execution Time"};
+    private static final ScenarioResultCollector collector = new ScenarioResultCollector();
+    private static volatile ResultJournal journal;
+    private static final Metrics.Timer AFTER_SCENARIO_TIMER = Metrics.timer("excel_write_after_scenario");
+    private static final Metrics.Timer AFTER_SUITE_TIMER = Metrics.timer("excel_create_after_suite");
+    private static final Metrics.Timer READ_RUN_DATA_TIMER = Metrics.timer("excel_read_run_data");
+    private static final Metrics.Counter SCENARIOS = Metrics.counter("scenarios");
 
     public static String getCurrentDateStamp() {
         return new SimpleDateFormat("yyyy.MM.dd").format(new java.util.Date());
     }
 
+    public static String getRunStamp() {
+        return RUN_STAMP;
+    }
+
     public void createTestExcelBeforeSuit() {
-        String[] columns = {"Description of Scenario", "Status", "Test Case Ids", "Feature File", "Execution Time"};
-        createExcelFileWithHeaders(fileName, sheetName, columns);
+        // Scenario data is appended to the journal while the suite runs, the excel is built once after the suite
+        journal = new ResultJournal(Paths.get(journalFileName));
+    }
+
+    /**
+     * Writes the journal to the given path, the excel and json reports are written next to it with the same base name,
+     * so several shards sharing a directory never overwrite each other's reports.
+     */
+    public void createTestExcelBeforeSuit(String journalPath) {
+        String basePath = journalPath.endsWith(".journal")
+                ? journalPath.substring(0, journalPath.length() - ".journal".length()) : journalPath;
+        journalFileName = journalPath;
+        fileName = basePath + ".xlsx";
+        jsonFileName = basePath + ".json";
+        createTestExcelBeforeSuit();
+    }
+
+    public String getJournalFileName() {
+        return journalFileName;
+    }
+
+    public String getExcelFileName() {
+        return fileName;
+    }
+
+    public String getJsonFileName() {
+        return jsonFileName;
+    }
+
+    public void createTestExcelAfterSuit() {
+        long start = System.nanoTime();
+        journal.close();
+        // The reports are exported from the journal written during the run
+        LOGGER.info("Writing AutomationRun excel and json from: " + journalFileName);
+        ResultExporter.toExcel(Paths.get(journalFileName), fileName, sheetName, COLUMNS);
+        ResultExporter.toJson(Paths.get(journalFileName), Paths.get(jsonFileName));
+        AFTER_SUITE_TIMER.recordSince(start);
     }
 
-    public void writeTestDataExcelAfterScenario(Scenario scenario, long scenarioExecutionTimeSec) {
-        LOGGER.info("Writing AutomationRun excel with scenario data");
-        String testCaseIDs = new AzureService().extractTestCaseIds(scenario);
+    public ScenarioResult writeTestDataExcelAfterScenario(Scenario scenario, long scenarioExecutionTimeNanos) {
+        long start = System.nanoTime();
+        // Logged for every scenario, so only at FINE level
+        LOGGER.fine("Writing AutomationRun excel with scenario data");
+        int[] testCaseIDs = ServiceRegistry.getTestCaseTagIndex().getTestCaseIds(scenario);
         String[] featureLists = scenario.getId().split("\\.");
         String[] features = (featureLists[featureLists.length-2]).split("/");
         String featureName = features[features.length-1];
-        LOGGER.info("Feature File Name:- " + featureName);
-        String[] testData = {scenario.getName(), scenario.getStatus().toString(), testCaseIDs, featureName, String.valueOf(scenarioExecutionTimeSec)};
-        writeExcelFileData(fileName, sheetName, testData);
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("Feature File Name:- " + featureName);
+        }
+        ScenarioResult result = new ScenarioResult(scenario.getName(), scenario.getStatus().toString(), testCaseIDs, featureName, scenarioExecutionTimeNanos);
+        writeTestData(result);
+        AFTER_SCENARIO_TIMER.recordSince(start);
+        return result;
+    }
+
+    public void writeTestData(ScenarioResult result) {
+        collector.add(result);
+        journal.append(result);
+        SCENARIOS.increment();
+    }
+
+    public List<ScenarioResult> getTestRunData() {
+        return collector.snapshot();
     }
 
-    public List<Row> getTestRunDataFromExcel() {
-        return readExcel(fileName, sheetName);
+    public List<ScenarioResult> getTestRunDataFromExcel() {
+        if (journal != null) {
+            journal.flush();
+        }
+        return ResultJournal.readAll(Paths.get(journalFileName));
+    }
+
+    public List<ScenarioResult> readTestRunData(String filePath) {
+        long start = System.nanoTime();
+        try {
+            return readTestRunDataFrom(filePath);
+        } finally {
+            READ_RUN_DATA_TIMER.recordSince(start);
+        }
+    }
+
+    private List<ScenarioResult> readTestRunDataFrom(String filePath) {
+        if (filePath.endsWith(".journal")) {
+            return ResultJournal.readAll(Paths.get(filePath));
+        }
+        List<ScenarioResult> results = new ArrayList<>();
+        try (ExcelRowReader reader = readExcel(filePath, sheetName)) {
+            int[] columns = new int[COLUMNS.length];
+            for (int i = 0; i < COLUMNS.length; i++) {
+                columns[i] = reader.getColumnIndex(COLUMNS[i]);
+            }
+            while (reader.hasNext()) {
+                String[] row = reader.next();
+                String executionTime = ExcelRowReader.getCell(row, columns[4]);
+                results.add(new ScenarioResult(ExcelRowReader.getCell(row, columns[0]), ExcelRowReader.getCell(row, columns[1]),
+                        ScenarioResult.parseTestCaseIds(ExcelRowReader.getCell(row, columns[2])), ExcelRowReader.getCell(row, columns[3]),
+                        executionTime.isEmpty() ? 0 : (long) (Double.parseDouble(executionTime) * 1_000_000_000L)));
+            }
+        }
+        return results;
     }
 
     public String[] getColumnDataFromExcel(List<Row> rows, int offsetFromLastColIndex) {
@@ -51,59 +153,38 @@ public class ExcelUtil {
     }
 
     public String[] getColumnDataFromExcel(String fileName, String sheetName, int offsetFromLastColIndex) {
-        List<Row> rows = readExcel(fileName, sheetName);
-        return getColumnDataFromExcel(rows, offsetFromLastColIndex);
+        try (ExcelRowReader reader = readExcel(fileName, sheetName)) {
+            int colIndex = reader.getHeader().length - offsetFromLastColIndex;
+            return reader.rows().map(row -> ExcelRowReader.getCell(row, colIndex)).toArray(String[]::new);
+        }
     }
 
-    public List<Row> readExcel(String filePath, String sheetName) {
-        try {
-            File file = new File(filePath);
-            FileInputStream inputStream = new FileInputStream(file);
-
-            Workbook workbook = new HSSFWorkbook(inputStream);
-            Sheet sheet = workbook.getSheet(sheetName);
-
-            int physicalRowCount = sheet.getPhysicalNumberOfRows();
-            List<Row> rows = new ArrayList<>();
-            for (int i = 1; i <= physicalRowCount; ++i) {
-                Row row = sheet.getRow(i);
-                rows.add(row);
-            }
+    public String[] getColumnDataFromExcel(String fileName, String sheetName, String headerName) {
+        try (ExcelRowReader reader = readExcel(fileName, sheetName)) {
+            int colIndex = reader.getColumnIndex(headerName);
+            return reader.rows().map(row -> ExcelRowReader.getCell(row, colIndex)).toArray(String[]::new);
+        }
+    }
 
-            return rows;
-        } catch (IOException e) {
+    public ExcelRowReader readExcel(String filePath, String sheetName) {
+        try {
+            return ExcelRowReader.open(filePath, sheetName);
+        } catch (RuntimeException e) {
             String message = "Unable to read Excel: " + filePath;
-            LOGGER.error(message, e);
-            throw new RuntimeException(message);
+            LOGGER.log(Level.SEVERE, message, e);
+            throw e;
         }
     }
 
     public void createExcelFileWithHeaders(String fileName, String sheetName, String[] columns) {
-        try {
-            HSSFWorkbook workbook = new HSSFWorkbook();
-            HSSFSheet sheet = workbook.createSheet(sheetName);
-            int rowNum = 1;
-
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerFont.setFontHeightInPoints((short) 14);
-            headerFont.setColor(IndexedColors.RED.getIndex());
-
-            CellStyle headerCellStyle = workbook.createCellStyle();
-            headerCellStyle.setFont(headerFont);
-
-            HSSFRow headerRow = sheet.createRow(rowNum);
+        createExcelFileWithData(fileName, sheetName, columns, new ArrayList<>());
+    }
 
-            for (int i = 0; i < columns.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(columns[i]);
-                cell.setCellStyle(headerCellStyle);
+    public void createExcelFileWithData(String fileName, String sheetName, String[] columns, List<ScenarioResult> results) {
+        try (ExcelReportWriter writer = new ExcelReportWriter(fileName, sheetName, columns)) {
+            for (ScenarioResult result : results) {
+                writer.writeRow(result.toRow());
             }
-            OutputStream fileOut = new FileOutputStream(fileName);
-            workbook.write(fileOut);
-            fileOut.close();
-            workbook.close();
-            LOGGER.info("Excel file for test data is initiated");
         } catch (Exception e) {
             LOGGER.info("Exception in CreateExcelFile------" + e);
         }
@@ -0,0 +1,49 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints.
+ */
+public class IntList {
+    private int[] elements;
+    private int size;
+
+    public IntList(int initialCapacity) {
+        this.elements = new int[Math.max(4, initialCapacity)];
+    }
+
+    public void add(int element) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size << 1);
+        }
+        elements[size++] = element;
+    }
+
+    public void addAll(int[] values) {
+        if (size + values.length > elements.length) {
+            elements = Arrays.copyOf(elements, Math.max(size << 1, size + values.length));
+        }
+        System.arraycopy(values, 0, elements, size, values.length);
+        size += values.length;
+    }
+
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return elements[index];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+}
@@ -0,0 +1,188 @@
+package utils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Process wide counters and timers of the marking pipeline, written to a JSON or Prometheus text file when the suite ends.
+ * Timers keep a fixed latency histogram, recording is lock free so it can be used on the scenario hooks.
+ * Call sites keep the Counter or Timer they record to in a static field, the registry is only used to create them.
+ */
+public final class Metrics {
+    private static final Logger LOGGER = Logger.getLogger(Metrics.class.getName());
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    // Histogram bucket upper bounds, the last bucket counts everything above them
+    private static final double[] BUCKET_SECONDS = {0.001, 0.005, 0.01, 0.05, 0.1, 0.5, 1, 5, 10, 30, 60};
+    private static final long[] BUCKET_NANOS = new long[BUCKET_SECONDS.length];
+
+    static {
+        for (int i = 0; i < BUCKET_SECONDS.length; i++) {
+            BUCKET_NANOS[i] = (long) (BUCKET_SECONDS[i] * 1_000_000_000L);
+        }
+    }
+
+    private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private static final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    public static Timer timer(String name) {
+        return timers.computeIfAbsent(name, key -> new Timer());
+    }
+
+    /**
+     * Writes all the metrics to the file, as Prometheus text when it ends with .prom and as JSON otherwise.
+     */
+    public static void writeTo(Path file) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            if (file.toString().endsWith(".prom")) {
+                try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                    writePrometheus(writer);
+                }
+            } else {
+                try (JsonGenerator generator = JSON_FACTORY.createGenerator(file.toFile(), JsonEncoding.UTF8)) {
+                    writeJson(generator);
+                }
+            }
+            LOGGER.info("Metrics written to: " + file);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write metrics: " + file, e);
+        }
+    }
+
+    private static void writeJson(JsonGenerator generator) throws IOException {
+        generator.useDefaultPrettyPrinter();
+        generator.writeStartObject();
+        generator.writeObjectFieldStart("counters");
+        for (Map.Entry<String, Counter> entry : new TreeMap<>(counters).entrySet()) {
+            generator.writeNumberField(entry.getKey(), entry.getValue().get());
+        }
+        generator.writeEndObject();
+        generator.writeObjectFieldStart("timers");
+        for (Map.Entry<String, Timer> entry : new TreeMap<>(timers).entrySet()) {
+            Timer timer = entry.getValue();
+            generator.writeObjectFieldStart(entry.getKey());
+            generator.writeNumberField("count", timer.getCount());
+            generator.writeNumberField("totalMs", timer.getTotalNanos() / 1_000_000.0);
+            generator.writeNumberField("maxMs", timer.getMaxNanos() / 1_000_000.0);
+            generator.writeObjectFieldStart("buckets");
+            long[] buckets = timer.getBucketCounts();
+            for (int i = 0; i < buckets.length; i++) {
+                generator.writeNumberField(i < BUCKET_SECONDS.length ? "le_" + BUCKET_SECONDS[i] : "le_inf", buckets[i]);
+            }
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+
+    private static void writePrometheus(Writer writer) throws IOException {
+        for (Map.Entry<String, Counter> entry : new TreeMap<>(counters).entrySet()) {
+            String name = entry.getKey() + "_total";
+            writer.write("# TYPE " + name + " counter\n");
+            writer.write(name + " " + entry.getValue().get() + "\n");
+        }
+        for (Map.Entry<String, Timer> entry : new TreeMap<>(timers).entrySet()) {
+            String name = entry.getKey() + "_seconds";
+            Timer timer = entry.getValue();
+            writer.write("# TYPE " + name + " histogram\n");
+            long[] buckets = timer.getBucketCounts();
+            long cumulative = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                cumulative += buckets[i];
+                String bound = i < BUCKET_SECONDS.length ? String.valueOf(BUCKET_SECONDS[i]) : "+Inf";
+                writer.write(name + "_bucket{le=\"" + bound + "\"} " + cumulative + "\n");
+            }
+            writer.write(name + "_sum " + timer.getTotalNanos() / 1_000_000_000.0 + "\n");
+            writer.write(name + "_count " + timer.getCount() + "\n");
+        }
+    }
+
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    public static final class Timer {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder[] buckets = new LongAdder[BUCKET_NANOS.length + 1];
+
+        private Timer() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        /**
+         * Records the time elapsed since startNanos, a value of System.nanoTime().
+         */
+        public void recordSince(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        public void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            int bucket = 0;
+            while (bucket < BUCKET_NANOS.length && nanos > BUCKET_NANOS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        public long[] getBucketCounts() {
+            long[] counts = new long[buckets.length];
+            for (int i = 0; i < buckets.length; i++) {
+                counts[i] = buckets[i].sum();
+            }
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package utils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.logging.Logger;
+
+/**
+ * Exports a result journal to the report formats, streaming its records straight from the mapped journal.
+ */
+public final class ResultExporter {
+    private static final Logger LOGGER = Logger.getLogger(ResultExporter.class.getName());
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private ResultExporter() {
+    }
+
+    public static int toExcel(Path journalPath, String fileName, String sheetName, String[] columns) {
+        try (ResultJournalReader reader = ResultJournalReader.open(journalPath);
+             ExcelReportWriter writer = new ExcelReportWriter(fileName, sheetName, columns)) {
+            while (reader.next()) {
+                writer.writeRow(new String[]{reader.getScenarioName(), reader.getStatus(),
+                        ScenarioResult.joinTestCaseIds(reader.getTestCaseIds()), reader.getFeatureName(),
+                        String.valueOf(reader.getExecutionTimeSec())});
+            }
+            return writer.getRowCount();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to export result journal " + journalPath + " to Excel: " + fileName, e);
+        }
+    }
+
+    public static int toJson(Path journalPath, Path jsonFile) {
+        int count = 0;
+        try (ResultJournalReader reader = ResultJournalReader.open(journalPath);
+             JsonGenerator generator = JSON_FACTORY.createGenerator(jsonFile.toFile(), JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            while (reader.next()) {
+                generator.writeStartObject();
+                generator.writeStringField("scenario", reader.getScenarioName());
+                generator.writeStringField("status", reader.getStatus());
+                generator.writeArrayFieldStart("testCaseIds");
+                for (int i = 0; i < reader.getTestCaseCount(); i++) {
+                    generator.writeNumber(reader.getTestCaseId(i));
+                }
+                generator.writeEndArray();
+                generator.writeStringField("feature", reader.getFeatureName());
+                generator.writeNumberField("executionTimeSec", reader.getExecutionTimeSec());
+                generator.writeNumberField("executionTimeNanos", reader.getExecutionTimeNanos());
+                generator.writeEndObject();
+                count++;
+            }
+            generator.writeEndArray();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to export result journal " + journalPath + " to JSON: " + jsonFile, e);
+        }
+        LOGGER.info("Exported " + count + " results to: " + jsonFile);
+        return count;
+    }
+}
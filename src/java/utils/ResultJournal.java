@@ -0,0 +1,219 @@
+package utils;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Append-only journal holding one length-prefixed binary record per executed scenario, read back with ResultJournalReader.
+ * Records are buffered and written to the file channel in blocks, the file is never re-read while the suite runs.
+ * A background task drains the buffer every second, so records reach the page cache (and survive a SIGKILL of the JVM)
+ * within a second even when no other scenario finishes.
+ *
+ * Layout, big endian: the MAGIC int, then per record
+ * int length of the rest of the record | long execution time in nanoseconds | byte status code | short test case count |
+ * int test case IDs... | int + UTF-8 status | int + UTF-8 scenario name | int + UTF-8 feature name
+ */
+public class ResultJournal implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(ResultJournal.class.getName());
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long DRAIN_INTERVAL_MS = 1000;
+    // One daemon thread drains the buffers of all the open journals
+    private static final ScheduledExecutorService DRAINER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "result-journal-drain");
+        thread.setDaemon(true);
+        return thread;
+    });
+    static final int MAGIC = 0x52534a32;
+    // Journals of the first version hold the execution time in seconds instead of nanoseconds
+    static final int MAGIC_V1 = 0x52534a31;
+    // Status codes stored with each record, so statuses are aggregated without decoding strings
+    static final String[] STATUSES = {"PASSED", "SKIPPED", "PENDING", "UNDEFINED", "AMBIGUOUS", "FAILED", "UNUSED"};
+    static final byte UNKNOWN_STATUS = -1;
+    // Legacy tab separated text journals are still read
+    private static final char FIELD_SEPARATOR = '\t';
+
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final ScheduledFuture<?> drainTask;
+
+    public ResultJournal(Path path) {
+        this.path = path;
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            buffer.putInt(MAGIC);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to open result journal: " + path, e);
+        }
+        drainTask = DRAINER.scheduleWithFixedDelay(this::drainPeriodically, DRAIN_INTERVAL_MS, DRAIN_INTERVAL_MS,
+                TimeUnit.MILLISECONDS);
+        LOGGER.info("Result journal is initiated: " + path);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public void append(ScenarioResult result) {
+        // Records are encoded by the calling worker, only the copy into the shared buffer is serialized
+        byte[] record = encode(result);
+        synchronized (this) {
+            try {
+                if (record.length > buffer.remaining()) {
+                    drain();
+                }
+                if (record.length > buffer.capacity()) {
+                    channel.write(ByteBuffer.wrap(record));
+                } else {
+                    buffer.put(record);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to append to result journal: " + path, e);
+            }
+        }
+    }
+
+    public synchronized void flush() {
+        try {
+            drain();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to flush result journal: " + path, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!channel.isOpen()) {
+            return;
+        }
+        drainTask.cancel(false);
+        try {
+            drain();
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to close result journal: " + path, e);
+        }
+    }
+
+    public static List<ScenarioResult> readAll(Path path) {
+        if (!Files.exists(path)) {
+            return new ArrayList<>();
+        }
+        if (ResultJournalReader.isBinaryJournal(path)) {
+            try (ResultJournalReader reader = ResultJournalReader.open(path)) {
+                return reader.readAll();
+            }
+        }
+        return readAllText(path);
+    }
+
+    private static List<ScenarioResult> readAllText(Path path) {
+        List<ScenarioResult> results = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] fields = decode(line);
+                results.add(new ScenarioResult(fields[0], fields[1], ScenarioResult.parseTestCaseIds(fields[2]), fields[3],
+                        TimeUnit.SECONDS.toNanos(Long.parseLong(fields[4]))));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read result journal: " + path, e);
+        }
+        return results;
+    }
+
+    private synchronized void drainPeriodically() {
+        if (!channel.isOpen() || buffer.position() == 0) {
+            return;
+        }
+        try {
+            drain();
+        } catch (IOException e) {
+            // Records stay buffered, they are written by the next append, flush or close
+            LOGGER.info("Unable to drain result journal " + path + ": " + e);
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } finally {
+            // Keeps what was not written when the write fails, the buffer is back in append mode either way
+            buffer.compact();
+        }
+    }
+
+    private static byte[] encode(ScenarioResult result) {
+        byte[] status = toBytes(result.getStatus());
+        byte[] scenarioName = toBytes(result.getScenarioName());
+        byte[] featureName = toBytes(result.getFeatureName());
+        int[] testCaseIds = result.getTestCaseIds();
+        int length = 8 + 1 + 2 + 4 * testCaseIds.length + 12 + status.length + scenarioName.length + featureName.length;
+        ByteBuffer record = ByteBuffer.allocate(4 + length);
+        record.putInt(length);
+        record.putLong(result.getExecutionTimeNanos());
+        record.put(getStatusCode(result.getStatus()));
+        record.putShort((short) testCaseIds.length);
+        for (int testCaseId : testCaseIds) {
+            record.putInt(testCaseId);
+        }
+        record.putInt(status.length).put(status);
+        record.putInt(scenarioName.length).put(scenarioName);
+        record.putInt(featureName.length).put(featureName);
+        return record.array();
+    }
+
+    static byte getStatusCode(String status) {
+        for (int i = 0; i < STATUSES.length; i++) {
+            if (STATUSES[i].equalsIgnoreCase(status)) {
+                return (byte) i;
+            }
+        }
+        return UNKNOWN_STATUS;
+    }
+
+    private static byte[] toBytes(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String[] decode(String line) {
+        List<String> fields = new ArrayList<>(5);
+        StringBuilder field = new StringBuilder();
+        for (int c = 0; c < line.length(); c++) {
+            char ch = line.charAt(c);
+            if (ch == FIELD_SEPARATOR) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\\' && c + 1 < line.length()) {
+                char escaped = line.charAt(++c);
+                field.append(escaped == 't' ? '\t' : escaped == 'n' ? '\n' : escaped == 'r' ? '\r' : escaped);
+            } else {
+                field.append(ch);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,205 @@
+package utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cursor over the records of a binary result journal, memory mapped and read in place.
+ * Fixed fields and test case IDs are read straight from the mapping, strings are only decoded when asked for,
+ * so large journals are scanned, filtered by test case ID and aggregated without copying records.
+ * A record cut short by a crash at the end of the file is ignored.
+ */
+public class ResultJournalReader implements AutoCloseable {
+    private static final int HEADER_SIZE = 4;
+    private static final int TEST_CASE_IDS_OFFSET = 4 + 8 + 1 + 2;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int limit;
+    private final long nanosPerTimeUnit;
+    private int recordStart = -1;
+    private int nextRecord = HEADER_SIZE;
+
+    private ResultJournalReader(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Result journal larger than 2 GB: " + path);
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            this.limit = (int) size;
+            int magic = limit < HEADER_SIZE ? 0 : buffer.getInt(0);
+            if (magic != ResultJournal.MAGIC && magic != ResultJournal.MAGIC_V1) {
+                throw new IOException("Not a binary result journal: " + path);
+            }
+            this.nanosPerTimeUnit = magic == ResultJournal.MAGIC_V1 ? TimeUnit.SECONDS.toNanos(1) : 1;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static ResultJournalReader open(Path path) {
+        try {
+            return new ResultJournalReader(path);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read result journal: " + path, e);
+        }
+    }
+
+    public static boolean isBinaryJournal(Path path) {
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] header = new byte[HEADER_SIZE];
+            if (in.read(header) != HEADER_SIZE) {
+                return false;
+            }
+            int magic = ByteBuffer.wrap(header).getInt();
+            return magic == ResultJournal.MAGIC || magic == ResultJournal.MAGIC_V1;
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read result journal: " + path, e);
+        }
+    }
+
+    /**
+     * Moves to the next record, returns false at the end of the journal.
+     */
+    public boolean next() {
+        if (nextRecord + 4 > limit) {
+            return false;
+        }
+        int length = buffer.getInt(nextRecord);
+        if (length < 0 || nextRecord + 4 + length > limit) {
+            return false;
+        }
+        recordStart = nextRecord;
+        nextRecord = recordStart + 4 + length;
+        return true;
+    }
+
+    public long getExecutionTimeNanos() {
+        return buffer.getLong(recordStart + 4) * nanosPerTimeUnit;
+    }
+
+    public long getExecutionTimeSec() {
+        return TimeUnit.NANOSECONDS.toSeconds(getExecutionTimeNanos());
+    }
+
+    /**
+     * Index of the status in ResultJournal.STATUSES, or -1 for other statuses.
+     */
+    public int getStatusCode() {
+        return buffer.get(recordStart + 12);
+    }
+
+    public int getTestCaseCount() {
+        return buffer.getShort(recordStart + 13) & 0xffff;
+    }
+
+    public int getTestCaseId(int index) {
+        return buffer.getInt(recordStart + TEST_CASE_IDS_OFFSET + 4 * index);
+    }
+
+    public boolean hasTestCase(int testCaseId) {
+        int count = getTestCaseCount();
+        for (int i = 0; i < count; i++) {
+            if (getTestCaseId(i) == testCaseId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String getStatus() {
+        return readString(getStringOffset(0));
+    }
+
+    public String getScenarioName() {
+        return readString(getStringOffset(1));
+    }
+
+    public String getFeatureName() {
+        return readString(getStringOffset(2));
+    }
+
+    public int[] getTestCaseIds() {
+        int[] testCaseIds = new int[getTestCaseCount()];
+        for (int i = 0; i < testCaseIds.length; i++) {
+            testCaseIds[i] = getTestCaseId(i);
+        }
+        return testCaseIds;
+    }
+
+    public ScenarioResult toScenarioResult() {
+        return new ScenarioResult(getScenarioName(), getStatus(), getTestCaseIds(), getFeatureName(), getExecutionTimeNanos());
+    }
+
+    public List<ScenarioResult> readAll() {
+        List<ScenarioResult> results = new ArrayList<>();
+        while (next()) {
+            results.add(toScenarioResult());
+        }
+        return results;
+    }
+
+    /**
+     * Results of the remaining records that cover the test case.
+     */
+    public List<ScenarioResult> findByTestCase(int testCaseId) {
+        List<ScenarioResult> results = new ArrayList<>();
+        while (next()) {
+            if (hasTestCase(testCaseId)) {
+                results.add(toScenarioResult());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Number of remaining records per status code, the last entry counts the statuses without a code.
+     */
+    public long[] countByStatus() {
+        long[] counts = new long[ResultJournal.STATUSES.length + 1];
+        while (next()) {
+            int statusCode = getStatusCode();
+            counts[statusCode < 0 ? counts.length - 1 : statusCode]++;
+        }
+        return counts;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to close result journal: " + path, e);
+        }
+    }
+
+    private int getStringOffset(int stringIndex) {
+        int offset = recordStart + TEST_CASE_IDS_OFFSET + 4 * getTestCaseCount();
+        for (int i = 0; i < stringIndex; i++) {
+            offset += 4 + buffer.getInt(offset);
+        }
+        return offset;
+    }
+
+    private String readString(int offset) {
+        int length = buffer.getInt(offset);
+        ByteBuffer bytes = buffer.duplicate();
+        bytes.position(offset + 4).limit(offset + 4 + length);
+        return StandardCharsets.UTF_8.decode(bytes).toString();
+    }
+}
@@ -0,0 +1,80 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges scenario results of one or more runs into a single result per test case ID.
+ */
+public class ResultMerger {
+
+    public enum Policy {
+        // The result added last wins
+        LATEST,
+        // The result with the worst status wins, the latest one between equal statuses
+        WORST
+    }
+
+    private final Policy policy;
+    private final Map<Integer, ScenarioResult> resultsByTestCase = new LinkedHashMap<>();
+    private int scenarioCount;
+
+    public ResultMerger(Policy policy) {
+        this.policy = policy;
+    }
+
+    public void addAll(List<ScenarioResult> results) {
+        for (ScenarioResult result : results) {
+            add(result);
+        }
+    }
+
+    public void add(ScenarioResult result) {
+        scenarioCount++;
+        for (int testCaseId : result.getTestCaseIds()) {
+            ScenarioResult current = resultsByTestCase.get(testCaseId);
+            if (current == null || policy == Policy.LATEST || getSeverity(result.getStatus()) >= getSeverity(current.getStatus())) {
+                resultsByTestCase.put(testCaseId, result);
+            }
+        }
+    }
+
+    public int getScenarioCount() {
+        return scenarioCount;
+    }
+
+    public int getTestCaseCount() {
+        return resultsByTestCase.size();
+    }
+
+    public List<ScenarioResult> getResults() {
+        List<ScenarioResult> merged = new ArrayList<>(resultsByTestCase.size());
+        for (Map.Entry<Integer, ScenarioResult> entry : resultsByTestCase.entrySet()) {
+            ScenarioResult result = entry.getValue();
+            merged.add(new ScenarioResult(result.getScenarioName(), result.getStatus(), new int[]{entry.getKey()},
+                    result.getFeatureName(), result.getExecutionTimeNanos()));
+        }
+        return merged;
+    }
+
+    public static int getSeverity(String status) {
+        switch (status == null ? "" : status.toUpperCase()) {
+            case "PASSED":
+                return 0;
+            case "SKIPPED":
+                return 1;
+            case "PENDING":
+            case "UNDEFINED":
+            case "UNUSED":
+                return 2;
+            case "AMBIGUOUS":
+                return 3;
+            case "FAILED":
+                return 4;
+            default:
+                return 2;
+        }
+    }
+}
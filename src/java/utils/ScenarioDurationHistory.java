@@ -0,0 +1,88 @@
+package utils;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Durations of the scenarios over the previous runs, keyed by scenario location (feature URI and line).
+ * Each scenario keeps a moving average of its durations in nanoseconds, so one slow run does not reorder the suite.
+ * Durations are recorded from the parallel scenario threads and saved once the suite ends.
+ */
+public class ScenarioDurationHistory {
+    private static final Logger LOGGER = Logger.getLogger(ScenarioDurationHistory.class.getName());
+    // Weight of the latest duration in the moving average
+    private static final double LATEST_WEIGHT = 0.5;
+
+    private final Path file;
+    private final Map<String, Long> durations = new ConcurrentHashMap<>();
+
+    private ScenarioDurationHistory(Path file) {
+        this.file = file;
+    }
+
+    public static ScenarioDurationHistory load(Path file) {
+        ScenarioDurationHistory history = new ScenarioDurationHistory(file);
+        if (!Files.exists(file)) {
+            return history;
+        }
+        Properties stored = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            stored.load(reader);
+        } catch (IOException e) {
+            LOGGER.info("Ignoring unreadable scenario duration history " + file + ": " + e);
+            return history;
+        }
+        for (String key : stored.stringPropertyNames()) {
+            try {
+                history.durations.put(key, Long.parseLong(stored.getProperty(key)));
+            } catch (NumberFormatException e) {
+                LOGGER.info("Ignoring scenario duration of " + key + ": " + stored.getProperty(key));
+            }
+        }
+        LOGGER.info("Loaded durations of " + history.durations.size() + " scenarios from: " + file);
+        return history;
+    }
+
+    public static String getKey(Object uri, Object line) {
+        return uri + ":" + line;
+    }
+
+    /**
+     * Expected duration of the scenario in nanoseconds, or -1 when it never ran.
+     */
+    public long getDurationNanos(String key) {
+        Long duration = durations.get(key);
+        return duration == null ? -1 : duration;
+    }
+
+    public int size() {
+        return durations.size();
+    }
+
+    public void record(String key, long durationNanos) {
+        durations.merge(key, durationNanos, (previous, latest) ->
+                (long) (LATEST_WEIGHT * latest + (1 - LATEST_WEIGHT) * previous));
+    }
+
+    public void save() {
+        Properties stored = new Properties();
+        for (Map.Entry<String, Long> entry : durations.entrySet()) {
+            stored.setProperty(entry.getKey(), String.valueOf(entry.getValue()));
+        }
+        DurableFiles.writeDurably(file, out -> {
+            try (Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+                stored.store(writer, "Scenario durations in nanoseconds");
+            }
+        });
+        LOGGER.info("Saved durations of " + durations.size() + " scenarios to: " + file);
+    }
+}
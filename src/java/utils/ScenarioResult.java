@@ -0,0 +1,68 @@
+package utils;
+
+import java.util.concurrent.TimeUnit;
+
+public class ScenarioResult {
+    private final String scenarioName;
+    private final String status;
+    private final int[] testCaseIds;
+    private final String featureName;
+    private final long executionTimeNanos;
+
+    public ScenarioResult(String scenarioName, String status, int[] testCaseIds, String featureName, long executionTimeNanos) {
+        this.scenarioName = scenarioName;
+        this.status = status;
+        this.testCaseIds = testCaseIds;
+        this.featureName = featureName;
+        this.executionTimeNanos = executionTimeNanos;
+    }
+
+    public String getScenarioName() {
+        return scenarioName;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public int[] getTestCaseIds() {
+        return testCaseIds;
+    }
+
+    public String getFeatureName() {
+        return featureName;
+    }
+
+    public long getExecutionTimeNanos() {
+        return executionTimeNanos;
+    }
+
+    public long getExecutionTimeSec() {
+        return TimeUnit.NANOSECONDS.toSeconds(executionTimeNanos);
+    }
+
+    public String[] toRow() {
+        return new String[]{scenarioName, status, joinTestCaseIds(testCaseIds), featureName, String.valueOf(getExecutionTimeSec())};
+    }
+
+    public static String joinTestCaseIds(int[] testCaseIds) {
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < testCaseIds.length; i++) {
+            if (i > 0) {
+                joined.append(',');
+            }
+            joined.append(testCaseIds[i]);
+        }
+        return joined.toString();
+    }
+
+    public static int[] parseTestCaseIds(String testCaseIds) {
+        IntList ids = new IntList(4);
+        for (String id : testCaseIds.split(",")) {
+            if (!id.trim().isEmpty()) {
+                ids.add(Integer.parseInt(id.trim()));
+            }
+        }
+        return ids.toArray();
+    }
+}
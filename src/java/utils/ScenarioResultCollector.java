@@ -0,0 +1,95 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects scenario results from parallel TestNG workers.
+ * Every worker thread appends to its own buffer, so recording a result only shares a sequence counter with other
+ * workers. Results are stamped with the sequence and snapshots list them in completion order across all threads,
+ * the order "last result wins" consumers (result store, LATEST merge, live publisher) rely on.
+ */
+public class ScenarioResultCollector {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Queue<ThreadBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<ThreadBuffer> localBuffer = ThreadLocal.withInitial(this::registerBuffer);
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    public void add(ScenarioResult result) {
+        localBuffer.get().add(sequence.getAndIncrement(), result);
+    }
+
+    /**
+     * Results recorded so far, in completion order.
+     */
+    public List<ScenarioResult> snapshot() {
+        // Sequences are unique and dense, so results are put in order by their sequence without sorting.
+        // Slots of results still being added by their worker stay empty and are skipped.
+        ScenarioResult[] ordered = new ScenarioResult[sequence.get()];
+        for (ThreadBuffer buffer : buffers) {
+            buffer.copyTo(ordered);
+        }
+        List<ScenarioResult> results = new ArrayList<>(ordered.length);
+        for (ScenarioResult result : ordered) {
+            if (result != null) {
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    public int size() {
+        int size = 0;
+        for (ThreadBuffer buffer : buffers) {
+            size += buffer.size;
+        }
+        return size;
+    }
+
+    private ThreadBuffer registerBuffer() {
+        ThreadBuffer buffer = new ThreadBuffer();
+        buffers.add(buffer);
+        return buffer;
+    }
+
+    /**
+     * Single writer buffer: only the owning thread appends, readers see every element below the published size.
+     */
+    private static final class ThreadBuffer {
+        private volatile int[] sequences = new int[INITIAL_CAPACITY];
+        private volatile ScenarioResult[] results = new ScenarioResult[INITIAL_CAPACITY];
+        private volatile int size;
+
+        private void add(int sequence, ScenarioResult result) {
+            int[] currentSequences = sequences;
+            ScenarioResult[] current = results;
+            int index = size;
+            if (index == current.length) {
+                currentSequences = Arrays.copyOf(currentSequences, index * 2);
+                current = Arrays.copyOf(current, index * 2);
+                sequences = currentSequences;
+                results = current;
+            }
+            currentSequences[index] = sequence;
+            current[index] = result;
+            size = index + 1;
+        }
+
+        private void copyTo(ScenarioResult[] target) {
+            int published = size;
+            int[] currentSequences = sequences;
+            ScenarioResult[] current = results;
+            for (int i = 0; i < published; i++) {
+                // Results stamped after the target was sized belong to the next snapshot
+                if (currentSequences[i] < target.length) {
+                    target[currentSequences[i]] = current[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package benchmarks;
+
+import hooks.TestPoints;
+import utils.ScenarioResult;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Synthetic scenarios and test points shared by the benchmarks.
+ */
+public final class BenchmarkData {
+    public static final int FIRST_TEST_CASE_ID = 500000;
+    public static final int FIRST_POINT_ID = 900000;
+
+    private BenchmarkData() {
+    }
+
+    public static List<ScenarioResult> scenarios(int count) {
+        List<ScenarioResult> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(scenario(i));
+        }
+        return results;
+    }
+
+    public static ScenarioResult scenario(int index) {
+        String status = index % 10 == 0 ? "FAILED" : "PASSED";
+        return new ScenarioResult("Scenario " + index + " validates the checkout flow", status,
+                new int[]{FIRST_TEST_CASE_ID + index}, "Feature" + (index % 50), TimeUnit.SECONDS.toNanos(index % 120));
+    }
+
+    public static List<String> tags(int index) {
+        return Arrays.asList("@regression", "@TC-" + (FIRST_TEST_CASE_ID + index), "@module" + (index % 20));
+    }
+
+    public static TestPoints testPoints(int count) {
+        int[] pointIDs = new int[count];
+        int[] testCaseIDs = new int[count];
+        for (int i = 0; i < count; i++) {
+            pointIDs[i] = FIRST_POINT_ID + i;
+            testCaseIDs[i] = FIRST_TEST_CASE_ID + i;
+        }
+        return new TestPoints(pointIDs, testCaseIDs);
+    }
+}
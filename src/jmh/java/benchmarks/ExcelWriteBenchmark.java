@@ -0,0 +1,51 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import utils.ExcelUtil;
+import utils.ScenarioResult;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing the AutomationRun excel once at the end of the suite.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExcelWriteBenchmark {
+    private static final String[] COLUMNS = {"Description of Scenario", "Status", "Test Case Ids", "Feature File", "Execution Time"};
+
+    @Param({"100", "1000", "10000", "50000"})
+    public int scenarios;
+
+    private List<ScenarioResult> results;
+    private Path excelFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        results = BenchmarkData.scenarios(scenarios);
+        excelFile = Files.createTempFile("AutomationTestRun", ".xlsx");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(excelFile);
+    }
+
+    @Benchmark
+    public void writeExcelAfterSuite() {
+        new ExcelUtil().createExcelFileWithData(excelFile.toString(), "TestData", COLUMNS, results);
+    }
+}
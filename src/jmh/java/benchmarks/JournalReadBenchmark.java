@@ -0,0 +1,73 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import utils.ResultJournal;
+import utils.ResultJournalReader;
+import utils.ScenarioResult;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scans of a generated result journal through the memory mapped reader: status counts and a test case lookup,
+ * which read fixed fields in place, next to decoding every record.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JournalReadBenchmark {
+    @Param({"100000", "1000000"})
+    public int records;
+
+    private Path journalFile;
+    private int testCaseId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        journalFile = Files.createTempFile("AutomationTestRun", ".journal");
+        try (ResultJournal journal = new ResultJournal(journalFile)) {
+            for (int i = 0; i < records; i++) {
+                journal.append(BenchmarkData.scenario(i));
+            }
+        }
+        // Found in the middle of the journal, every record is still checked
+        testCaseId = BenchmarkData.FIRST_TEST_CASE_ID + records / 2;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(journalFile);
+    }
+
+    @Benchmark
+    public long[] countByStatus() {
+        try (ResultJournalReader reader = ResultJournalReader.open(journalFile)) {
+            return reader.countByStatus();
+        }
+    }
+
+    @Benchmark
+    public List<ScenarioResult> findByTestCase() {
+        try (ResultJournalReader reader = ResultJournalReader.open(journalFile)) {
+            return reader.findByTestCase(testCaseId);
+        }
+    }
+
+    @Benchmark
+    public List<ScenarioResult> readAll() {
+        try (ResultJournalReader reader = ResultJournalReader.open(journalFile)) {
+            return reader.readAll();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import utils.ExcelUtil;
+import utils.ScenarioResult;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Baseline: re-opening and rewriting the excel for every scenario with writeExcelFileData.
+ * Limited to small suites, the cost grows quadratically with the number of scenarios.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LegacyExcelWriteBenchmark {
+    private static final String[] COLUMNS = {"Description of Scenario", "Status", "Test Case Ids", "Feature File", "Execution Time"};
+
+    @Param({"100", "1000"})
+    public int scenarios;
+
+    private List<ScenarioResult> results;
+    private Path excelFile;
+
+    @Setup(Level.Invocation)
+    public void setUp() throws IOException {
+        results = BenchmarkData.scenarios(scenarios);
+        excelFile = Files.createTempFile("AutomationTestRun", ".xls");
+        new ExcelUtil().createExcelFileWithHeaders(excelFile.toString(), "TestData", COLUMNS);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(excelFile);
+    }
+
+    @Benchmark
+    public void writeExcelPerScenario() {
+        ExcelUtil excelUtil = new ExcelUtil();
+        for (ScenarioResult result : results) {
+            excelUtil.writeExcelFileData(excelFile.toString(), "TestData", result.toRow());
+        }
+    }
+}
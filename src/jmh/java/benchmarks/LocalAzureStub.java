@@ -0,0 +1,329 @@
+package benchmarks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import hooks.AzureClient;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process stand-in for the Azure Test Plans API, serving the five endpoints used by AzureService: plans, suites,
+ * points, runs and run results. The suite holds a configurable number of points, numbered like BenchmarkData, and is
+ * paged with continuation tokens or $skip/$top. Latency and failures (e.g. 429 or 503) can be injected per endpoint.
+ */
+public class LocalAzureStub implements AutoCloseable {
+    private static final byte[] EMPTY_RESULT = "{\"count\":0,\"value\":[]}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] OUTCOME_FIELD = "\"outcome\"".getBytes(StandardCharsets.UTF_8);
+    private static final int FIRST_PLAN_ID = 1000;
+    private static final int FIRST_RUN_ID = 5000;
+
+    private static final Map<AzureClient.Endpoint, Route> ROUTES = new EnumMap<>(AzureClient.Endpoint.class);
+
+    static {
+        ROUTES.put(AzureClient.Endpoint.CREATE_PLAN, new Route("POST", "/test/plans"));
+        ROUTES.put(AzureClient.Endpoint.CREATE_TEST_SUITE, new Route("POST", "/test/plans/(\\d+)/suites/(\\d+)"));
+        ROUTES.put(AzureClient.Endpoint.CREATE_TEST_RUN, new Route("POST", "/test/runs"));
+        ROUTES.put(AzureClient.Endpoint.GET_POINT_IDS, new Route("GET", "/test/plans/(\\d+)/suites/(\\d+)/points"));
+        ROUTES.put(AzureClient.Endpoint.UPDATE_RUN_WITH_RESULT, new Route("PATCH", "/test/runs/(\\d+)/results"));
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final Map<AzureClient.Endpoint, LongAdder> requests = new EnumMap<>(AzureClient.Endpoint.class);
+    private final Map<AzureClient.Endpoint, Failure> failures = new EnumMap<>(AzureClient.Endpoint.class);
+    private final LongAdder failedRequests = new LongAdder();
+    private final LongAdder resultsReceived = new LongAdder();
+    private volatile int points;
+    private volatile int pageSize;
+    private volatile int maxTop;
+    private volatile int minLatencyMs;
+    private volatile int maxLatencyMs;
+    private volatile String etag;
+    private volatile String lastModified;
+
+    public LocalAzureStub() throws IOException {
+        this(16);
+    }
+
+    public LocalAzureStub(int threads) throws IOException {
+        for (AzureClient.Endpoint endpoint : AzureClient.Endpoint.values()) {
+            requests.put(endpoint, new LongAdder());
+        }
+        setPoints(0);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String getServerUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/_apis";
+    }
+
+    /**
+     * Sets the number of points of the suite, point i has ID FIRST_POINT_ID + i and test case FIRST_TEST_CASE_ID + i.
+     * The points get a new ETag, so conditional requests see the change.
+     */
+    public LocalAzureStub setPoints(int points) {
+        this.points = points;
+        this.etag = "\"points-" + points + "-" + System.nanoTime() + "\"";
+        this.lastModified = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC));
+        return this;
+    }
+
+    /**
+     * Largest page of points returned when the client does not send $top, 0 returns the whole suite in one page.
+     */
+    public LocalAzureStub setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    /**
+     * Largest page of points returned for a $top request, like a server side cap, 0 returns $top points.
+     */
+    public LocalAzureStub setMaxTop(int maxTop) {
+        this.maxTop = maxTop;
+        return this;
+    }
+
+    /**
+     * Delays every response by a uniformly distributed latency between minMs and maxMs.
+     */
+    public LocalAzureStub setLatency(int minMs, int maxMs) {
+        this.minLatencyMs = minMs;
+        this.maxLatencyMs = Math.max(minMs, maxMs);
+        return this;
+    }
+
+    /**
+     * Answers the given fraction of the requests to the endpoint with the status, e.g. 429 to simulate throttling.
+     * A non negative retryAfterSec is sent as the Retry-After header.
+     */
+    public LocalAzureStub failRequests(AzureClient.Endpoint endpoint, double rate, int status, int retryAfterSec) {
+        synchronized (failures) {
+            failures.put(endpoint, new Failure(rate, status, retryAfterSec));
+        }
+        return this;
+    }
+
+    public long getRequestCount(AzureClient.Endpoint endpoint) {
+        return requests.get(endpoint).sum();
+    }
+
+    public long getFailedRequestCount() {
+        return failedRequests.sum();
+    }
+
+    public long getResultsReceived() {
+        return resultsReceived.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readAllBytes();
+        }
+        exchange.getResponseHeaders().add("Content-type", "application/json");
+        AzureClient.Endpoint endpoint = null;
+        Matcher matcher = null;
+        for (Map.Entry<AzureClient.Endpoint, Route> route : ROUTES.entrySet()) {
+            matcher = route.getValue().match(exchange);
+            if (matcher != null) {
+                endpoint = route.getKey();
+                break;
+            }
+        }
+        if (endpoint == null) {
+            send(exchange, 404, EMPTY_RESULT);
+            return;
+        }
+        requests.get(endpoint).increment();
+        delay();
+
+        Failure failure;
+        synchronized (failures) {
+            failure = failures.get(endpoint);
+        }
+        if (failure != null && ThreadLocalRandom.current().nextDouble() < failure.rate) {
+            failedRequests.increment();
+            if (failure.retryAfterSec >= 0) {
+                exchange.getResponseHeaders().add("Retry-After", String.valueOf(failure.retryAfterSec));
+            }
+            send(exchange, failure.status, EMPTY_RESULT);
+            return;
+        }
+
+        switch (endpoint) {
+            case CREATE_PLAN:
+                int planId = FIRST_PLAN_ID + nextId.incrementAndGet();
+                sendJson(exchange, "{\"id\":" + planId + ",\"rootSuite\":{\"id\":" + (planId + 1) + "}}");
+                break;
+            case CREATE_TEST_SUITE:
+                sendJson(exchange, "{\"count\":1,\"value\":[{\"id\":" + (Integer.parseInt(matcher.group(2)) + 1) + "}]}");
+                break;
+            case CREATE_TEST_RUN:
+                sendJson(exchange, "{\"id\":" + (FIRST_RUN_ID + nextId.incrementAndGet()) + "}");
+                break;
+            case GET_POINT_IDS:
+                sendPoints(exchange);
+                break;
+            case UPDATE_RUN_WITH_RESULT:
+                resultsReceived.add(count(body, OUTCOME_FIELD));
+                send(exchange, 200, EMPTY_RESULT);
+                break;
+            default:
+                send(exchange, 404, EMPTY_RESULT);
+        }
+    }
+
+    private void sendPoints(HttpExchange exchange) throws IOException {
+        String currentEtag = etag;
+        exchange.getResponseHeaders().add("ETag", currentEtag);
+        exchange.getResponseHeaders().add("Last-Modified", lastModified);
+        if (currentEtag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        int total = points;
+        int from;
+        int to;
+        if (query.containsKey("$top")) {
+            from = Integer.parseInt(query.getOrDefault("$skip", "0"));
+            int top = Integer.parseInt(query.get("$top"));
+            to = from + (maxTop > 0 ? Math.min(top, maxTop) : top);
+        } else {
+            from = Integer.parseInt(query.getOrDefault("continuationToken", "0"));
+            to = pageSize > 0 ? from + pageSize : total;
+            if (to < total) {
+                exchange.getResponseHeaders().add("x-ms-continuationtoken", String.valueOf(to));
+            }
+        }
+        from = Math.min(from, total);
+        to = Math.min(to, total);
+
+        StringBuilder json = new StringBuilder(64 + (to - from) * 48);
+        json.append("{\"value\":[");
+        for (int i = from; i < to; i++) {
+            if (i > from) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(BenchmarkData.FIRST_POINT_ID + i)
+                    .append(",\"testCase\":{\"id\":\"").append(BenchmarkData.FIRST_TEST_CASE_ID + i)
+                    .append("\"},\"outcome\":\"Unspecified\"}");
+        }
+        json.append("],\"count\":").append(to - from).append('}');
+        sendJson(exchange, json.toString());
+    }
+
+    private void delay() {
+        int latencyMs = maxLatencyMs > minLatencyMs
+                ? ThreadLocalRandom.current().nextInt(minLatencyMs, maxLatencyMs + 1) : minLatencyMs;
+        if (latencyMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sendJson(HttpExchange exchange, String json) throws IOException {
+        send(exchange, 200, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) throws IOException {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                query.put(URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8.name()),
+                        URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8.name()));
+            }
+        }
+        return query;
+    }
+
+    private static int count(byte[] content, byte[] token) {
+        int count = 0;
+        for (int i = 0; i <= content.length - token.length; i++) {
+            int j = 0;
+            while (j < token.length && content[i + j] == token[j]) {
+                j++;
+            }
+            if (j == token.length) {
+                count++;
+                i += token.length - 1;
+            }
+        }
+        return count;
+    }
+
+    private static class Route {
+        private final String method;
+        private final Pattern path;
+
+        Route(String method, String path) {
+            this.method = method;
+            this.path = Pattern.compile("/_apis" + path, Pattern.CASE_INSENSITIVE);
+        }
+
+        Matcher match(HttpExchange exchange) {
+            if (!method.equals(exchange.getRequestMethod())) {
+                return null;
+            }
+            Matcher matcher = path.matcher(exchange.getRequestURI().getPath());
+            return matcher.matches() ? matcher : null;
+        }
+    }
+
+    private static class Failure {
+        private final double rate;
+        private final int status;
+        private final int retryAfterSec;
+
+        Failure(double rate, int status, int retryAfterSec) {
+            this.rate = rate;
+            this.status = status;
+            this.retryAfterSec = retryAfterSec;
+        }
+    }
+}
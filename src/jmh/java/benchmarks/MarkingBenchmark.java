@@ -0,0 +1,100 @@
+package benchmarks;
+
+import hooks.AsyncAzureService;
+import hooks.AzureClient;
+import hooks.AzureConfig;
+import hooks.AzureService;
+import hooks.ResultUploader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import utils.ScenarioResult;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Whole marking pipeline (plan, suite, paged points, run and chunked upload) against the local Azure stub, with
+ * injected latency and throttled uploads, fully offline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MarkingBenchmark {
+    // Held so the level set on the hooks loggers is not lost, per request logging would dominate the measurement
+    private static final Logger HOOKS_LOGGER = Logger.getLogger("hooks");
+
+    @Param({"1000", "10000", "100000"})
+    public int points;
+
+    @Param({"0", "20"})
+    public int latencyMs;
+
+    @Param({"0", "0.05"})
+    public double throttleRate;
+
+    private LocalAzureStub stub;
+    private Path snapshotDir;
+    private List<ScenarioResult> testData;
+    private AzureClient azureClient;
+    private AsyncAzureService asyncAzureService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        HOOKS_LOGGER.setLevel(java.util.logging.Level.WARNING);
+        stub = new LocalAzureStub(32).setPoints(points).setPageSize(1000).setLatency(latencyMs / 2, latencyMs);
+        stub.failRequests(AzureClient.Endpoint.UPDATE_RUN_WITH_RESULT, throttleRate, 429, -1);
+        snapshotDir = Files.createTempDirectory("marking-benchmark");
+        testData = BenchmarkData.scenarios(points);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpService() {
+        // A new service per iteration, the published snapshots it keeps per run would otherwise grow without bound
+        Map<String, Object> config = new HashMap<>();
+        config.put("ServerUrl", stub.getServerUrl());
+        config.put("PlanName", "Benchmark plan");
+        config.put("SuiteName", "Benchmark suite");
+        config.put("RunName", "Benchmark run");
+        config.put("PublishedSnapshotDir", snapshotDir.toString());
+        config.put("PointPageSize", 1000);
+        config.put("PointPageParallelism", 4);
+        config.put("UploadInitialBackoffMs", 10);
+        azureClient = new AzureClient(stub.getServerUrl(), "pat", 20, 1000, 10000, 60);
+        asyncAzureService = new AsyncAzureService(new AzureService(new AzureConfig(config), azureClient), 4);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownService() {
+        asyncAzureService.close();
+        azureClient.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        stub.close();
+        try (Stream<Path> files = Files.walk(snapshotDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public List<ResultUploader.ChunkReport> markResults() {
+        // Every invocation creates a new run, so all the results are sent
+        return asyncAzureService.markResults(testData).join();
+    }
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+import hooks.AzureClient;
+import hooks.AzureConfig;
+import hooks.AzureService;
+import hooks.PointResultStore;
+import hooks.TestPoints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import utils.ScenarioResult;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the run results from the executed scenarios and serializing the update run payload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ResultJsonBenchmark {
+    @Param({"100", "1000", "10000", "50000"})
+    public int points;
+
+    private AzureClient azureClient;
+    private AzureService azureService;
+    private TestPoints testPoints;
+    private List<ScenarioResult> results;
+    private PointResultStore resultStore;
+    private int[] pointIndexes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        azureClient = new AzureClient("http://127.0.0.1:1/_apis", "pat", 1, 1000, 1000, 1);
+        azureService = new AzureService(new AzureConfig(Collections.singletonMap("RunName", "Benchmark run")), azureClient);
+        testPoints = BenchmarkData.testPoints(points);
+        results = BenchmarkData.scenarios(points);
+        resultStore = azureService.createResultStore(testPoints, results);
+        pointIndexes = resultStore.allPointIndexes();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        azureClient.close();
+    }
+
+    @Benchmark
+    public PointResultStore getResultData() {
+        return azureService.createResultStore(testPoints, results);
+    }
+
+    @Benchmark
+    public byte[] createResultJson() {
+        return resultStore.toJson(pointIndexes, 0, pointIndexes.length);
+    }
+}
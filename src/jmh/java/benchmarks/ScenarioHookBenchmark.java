@@ -0,0 +1,87 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import utils.ResultJournal;
+import utils.ScenarioResult;
+import utils.ScenarioResultCollector;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-suite cost of the afterScenario bookkeeping: collecting the result and appending it to the journal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ScenarioHookBenchmark {
+    private static final int PARALLEL_WRITERS = 16;
+
+    @Param({"100", "1000", "10000", "50000"})
+    public int scenarios;
+
+    private List<ScenarioResult> results;
+    private Path journalFile;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        results = BenchmarkData.scenarios(scenarios);
+        journalFile = Files.createTempFile("AutomationTestRun", ".journal");
+        executor = Executors.newFixedThreadPool(PARALLEL_WRITERS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        Files.deleteIfExists(journalFile);
+    }
+
+    @Benchmark
+    public ScenarioResultCollector recordSuite() {
+        ScenarioResultCollector collector = new ScenarioResultCollector();
+        try (ResultJournal journal = new ResultJournal(journalFile)) {
+            for (ScenarioResult result : results) {
+                collector.add(result);
+                journal.append(result);
+            }
+        }
+        return collector;
+    }
+
+    @Benchmark
+    public ScenarioResultCollector recordSuiteParallel() throws Exception {
+        ScenarioResultCollector collector = new ScenarioResultCollector();
+        try (ResultJournal journal = new ResultJournal(journalFile)) {
+            List<Future<?>> writers = new ArrayList<>(PARALLEL_WRITERS);
+            for (int writer = 0; writer < PARALLEL_WRITERS; writer++) {
+                int first = writer;
+                writers.add(executor.submit(() -> {
+                    for (int i = first; i < results.size(); i += PARALLEL_WRITERS) {
+                        collector.add(results.get(i));
+                        journal.append(results.get(i));
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        }
+        return collector;
+    }
+}
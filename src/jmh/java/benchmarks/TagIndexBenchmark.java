@@ -0,0 +1,46 @@
+package benchmarks;
+
+import hooks.TestCaseTagIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extracting the test case IDs from the scenario tags.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TagIndexBenchmark {
+    @Param({"100", "1000", "10000", "50000"})
+    public int scenarios;
+
+    private List<List<String>> tags;
+    private TestCaseTagIndex tagIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tags = new ArrayList<>(scenarios);
+        for (int i = 0; i < scenarios; i++) {
+            tags.add(BenchmarkData.tags(i));
+        }
+        tagIndex = new TestCaseTagIndex();
+    }
+
+    @Benchmark
+    public void extractTestCaseIds(Blackhole blackhole) {
+        for (int i = 0; i < tags.size(); i++) {
+            blackhole.consume(tagIndex.parseTags("scenario-" + i, tags.get(i)));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package benchmarks;
+
+import hooks.AzureClient;
+import hooks.AzureConfig;
+import hooks.AzureService;
+import hooks.PointResultStore;
+import hooks.ResultUploader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chunked upload of the run results against a local HTTP stub instead of Azure.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class UploadBenchmark {
+    @Param({"100", "1000", "10000", "50000"})
+    public int points;
+
+    private LocalAzureStub stub;
+    private AzureClient azureClient;
+    private AzureService azureService;
+    private PointResultStore resultStore;
+    private int[] pointIndexes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        stub = new LocalAzureStub();
+        Map<String, Object> config = new HashMap<>();
+        config.put("ServerUrl", stub.getServerUrl());
+        config.put("RunName", "Benchmark run");
+        azureClient = new AzureClient(stub.getServerUrl(), "pat", 20, 1000, 10000, 60);
+        azureService = new AzureService(new AzureConfig(config), azureClient);
+        resultStore = azureService.createResultStore(BenchmarkData.testPoints(points), BenchmarkData.scenarios(points));
+        pointIndexes = resultStore.allPointIndexes();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        azureClient.close();
+        stub.close();
+    }
+
+    @Benchmark
+    public List<ResultUploader.ChunkReport> uploadTestResults() {
+        // The uploader is called directly, updateTestResults would skip the results already published by the first call
+        return new ResultUploader(azureService, 200, 4, 0, 1).upload("1", resultStore, pointIndexes);
+    }
+}
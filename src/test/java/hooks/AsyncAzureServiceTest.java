@@ -0,0 +1,96 @@
+package hooks;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+public class AsyncAzureServiceTest {
+    private AsyncAzureService asyncAzureService;
+
+    @AfterMethod(alwaysRun = true)
+    public void close() {
+        if (asyncAzureService != null) {
+            asyncAzureService.close();
+        }
+    }
+
+    @Test
+    public void createStagesDoNotTimeOutBeforeTheHttpClient() {
+        Map<String, Object> config = new HashMap<>();
+        config.put("HttpConnectTimeoutMs", 10000);
+        config.put("HttpSocketTimeoutMs", 60000);
+        config.put("RunStageTimeoutSec", 60);
+        config.put("PlanStageTimeoutSec", 600);
+        config.put("PointsStageTimeoutSec", 5);
+        asyncAzureService = new AsyncAzureService(new SlowAzureService(config, 0), 1);
+
+        assertEquals(asyncAzureService.getTimeoutSec(AsyncAzureService.Stage.RUN), 85);
+        assertEquals(asyncAzureService.getTimeoutSec(AsyncAzureService.Stage.PLAN), 600);
+        assertEquals(asyncAzureService.getTimeoutSec(AsyncAzureService.Stage.POINTS), 5);
+    }
+
+    @Test
+    public void timeoutStartsWhenTheStageRuns() {
+        Map<String, Object> config = new HashMap<>();
+        config.put("PointsStageTimeoutSec", 1);
+        asyncAzureService = new AsyncAzureService(new SlowAzureService(config, 1500), 1);
+
+        // The plan holds the only stage thread longer than the points timeout, the queued points stage still completes
+        CompletableFuture<String[]> plan = asyncAzureService.createTestPlanIfIDNotProvided();
+        CompletableFuture<TestPoints> points = asyncAzureService.getPointIDs("1", "2");
+        assertEquals(points.join().size(), 1);
+        assertEquals(plan.join()[0], "1");
+    }
+
+    @Test
+    public void runningStageTimesOut() {
+        Map<String, Object> config = new HashMap<>();
+        config.put("PointsStageTimeoutSec", 1);
+        asyncAzureService = new AsyncAzureService(new SlowAzureService(config, 0) {
+            @Override
+            public TestPoints getPointIDs(String planId, String suiteId) {
+                sleep(3000);
+                return super.getPointIDs(planId, suiteId);
+            }
+        }, 1);
+
+        CompletionException error = expectThrows(CompletionException.class, () -> asyncAzureService.getPointIDs("1", "2").join());
+        assertTrue(error.getCause() instanceof TimeoutException);
+    }
+
+    private static class SlowAzureService extends AzureService {
+        private final long planDelayMs;
+
+        SlowAzureService(Map<String, Object> config, long planDelayMs) {
+            super(new AzureConfig(config), null);
+            this.planDelayMs = planDelayMs;
+        }
+
+        @Override
+        public String[] createTestPlanIfIDNotProvided() {
+            sleep(planDelayMs);
+            return new String[]{"1", "2"};
+        }
+
+        @Override
+        public TestPoints getPointIDs(String planId, String suiteId) {
+            return new TestPoints(new int[]{10}, new int[]{20});
+        }
+
+        static void sleep(long millis) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package hooks;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class MarkingCheckpointTest {
+    private Path directory;
+    private Path file;
+
+    @BeforeMethod
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("marking-checkpoint");
+        file = directory.resolve("run.journal.checkpoint");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void resumesFromTheLastRecordedStep() {
+        MarkingCheckpoint checkpoint = MarkingCheckpoint.start(file);
+        checkpoint.recordPlan("5", "7");
+        checkpoint.recordSuite("9");
+        checkpoint.recordPoints(new TestPoints(new int[]{100, 101, 102}, new int[]{1, 2, 3}));
+        checkpoint.recordRun("99");
+
+        MarkingCheckpoint resumed = MarkingCheckpoint.load(file);
+        assertEquals(resumed.getStep(), MarkingCheckpoint.Step.RUN);
+        assertEquals(resumed.getPlan(), new String[]{"5", "7"});
+        assertEquals(resumed.getSuiteId(), "9");
+        assertEquals(resumed.getRunId(), "99");
+        TestPoints testPoints = resumed.getTestPoints();
+        assertEquals(testPoints.getPointIDs(), new int[]{100, 101, 102});
+        assertEquals(testPoints.getPointId(2), 101);
+        assertFalse(resumed.isDone(MarkingCheckpoint.Step.UPLOADED));
+
+        resumed.recordUploaded();
+        assertTrue(MarkingCheckpoint.load(file).isDone(MarkingCheckpoint.Step.UPLOADED));
+    }
+
+    @Test
+    public void resumesAStepInProgress() {
+        MarkingCheckpoint checkpoint = MarkingCheckpoint.start(file);
+        checkpoint.recordPlan("5", null);
+
+        MarkingCheckpoint resumed = MarkingCheckpoint.load(file);
+        assertEquals(resumed.getPlan(), new String[]{"5", ""});
+        assertNull(resumed.getSuiteId());
+        assertNull(resumed.getTestPoints());
+        assertNull(resumed.getRunId());
+    }
+
+    @Test
+    public void startDiscardsPreviousProgress() {
+        MarkingCheckpoint checkpoint = MarkingCheckpoint.start(file);
+        checkpoint.recordPlan("5", "7");
+        checkpoint.recordSuite("9");
+        checkpoint.recordPoints(new TestPoints(new int[]{100}, new int[]{1}));
+
+        MarkingCheckpoint.start(file);
+        MarkingCheckpoint resumed = MarkingCheckpoint.load(file);
+        assertEquals(resumed.getStep(), MarkingCheckpoint.Step.STARTED);
+        assertNull(resumed.getPlan());
+        assertFalse(Files.exists(directory.resolve("run.journal.checkpoint.points")));
+    }
+
+    @Test
+    public void missingCheckpointStartsFromTheBeginning() {
+        MarkingCheckpoint checkpoint = MarkingCheckpoint.load(file);
+        assertEquals(checkpoint.getStep(), MarkingCheckpoint.Step.STARTED);
+        assertNull(checkpoint.getRunId());
+        assertFalse(Files.exists(file));
+    }
+}
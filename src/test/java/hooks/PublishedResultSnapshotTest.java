@@ -0,0 +1,151 @@
+package hooks;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class PublishedResultSnapshotTest {
+    private static final int POINTS = 1000;
+
+    private Path directory;
+    private TestPoints testPoints;
+    private PointResultStore results;
+    private int[] allPointIndexes;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("published-snapshot");
+        int[] pointIDs = new int[POINTS];
+        int[] testCaseIDs = new int[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            pointIDs[i] = 9000 + i;
+            testCaseIDs[i] = 100 + i;
+        }
+        testPoints = new TestPoints(pointIDs, testCaseIDs);
+        results = new PointResultStore(testPoints);
+        for (int i = 0; i < POINTS; i++) {
+            results.complete(100 + i, i % 3 == 0 ? "Failed" : "Passed", "Scenario " + i);
+        }
+        allPointIndexes = results.allPointIndexes();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void appendedChunksSurviveWithoutCompaction() {
+        PublishedResultSnapshot snapshot = PublishedResultSnapshot.load(directory, "7", testPoints);
+        assertEquals(snapshot.changedPointIndexes(results, allPointIndexes).length, POINTS);
+        snapshot.appendPublished(results, allPointIndexes, 0, 200);
+        snapshot.appendPublished(results, allPointIndexes, 200, 400);
+
+        assertFalse(Files.exists(directory.resolve("7.snapshot")));
+        assertTrue(Files.exists(directory.resolve("7.snapshot.log")));
+        int[] changed = PublishedResultSnapshot.load(directory, "7", testPoints).changedPointIndexes(results, allPointIndexes);
+        assertEquals(changed.length, POINTS - 400);
+        assertEquals(changed[0], 400);
+    }
+
+    @Test
+    public void launchLinkDoesNotChangeAResult() {
+        PointResultStore previousRun = new PointResultStore(testPoints);
+        PointResultStore nextRun = new PointResultStore(testPoints);
+        previousRun.complete(100, "Passed", "Scenario 0" + AzureService.REPORT_PORTAL_LINK + "https://rp/launches/1");
+        nextRun.complete(100, "Passed", "Scenario 0" + AzureService.REPORT_PORTAL_LINK + "https://rp/launches/2");
+        int[] firstPoint = {0};
+        PublishedResultSnapshot snapshot = PublishedResultSnapshot.load(directory, "7", testPoints);
+        snapshot.appendPublished(previousRun, firstPoint, 0, 1);
+
+        assertEquals(snapshot.changedPointIndexes(nextRun, firstPoint).length, 0);
+        nextRun.complete(100, "Failed", "Scenario 0" + AzureService.REPORT_PORTAL_LINK + "https://rp/launches/2");
+        assertEquals(snapshot.changedPointIndexes(nextRun, firstPoint).length, 1);
+    }
+
+    @Test
+    public void compactionMovesTheLogIntoTheSnapshot() {
+        PublishedResultSnapshot snapshot = PublishedResultSnapshot.load(directory, "7", testPoints);
+        snapshot.appendPublished(results, allPointIndexes, 0, 300);
+        snapshot.compact();
+        assertTrue(Files.exists(directory.resolve("7.snapshot")));
+        assertFalse(Files.exists(directory.resolve("7.snapshot.log")));
+
+        snapshot.appendPublished(results, allPointIndexes, 300, 500);
+        results.complete(100, "Passed", "Scenario 0 rerun");
+        int[] changed = PublishedResultSnapshot.load(directory, "7", testPoints).changedPointIndexes(results, allPointIndexes);
+        assertEquals(changed.length, POINTS - 500 + 1);
+        assertEquals(changed[0], 0);
+        assertEquals(changed[1], 500);
+    }
+
+    @Test
+    public void compactsOnceTheLogOutgrowsTheSnapshot() {
+        PublishedResultSnapshot snapshot = PublishedResultSnapshot.load(directory, "7", testPoints);
+        snapshot.appendPublished(results, allPointIndexes, 0, 400);
+        snapshot.compactIfLogExceedsSnapshot();
+        assertTrue(Files.exists(directory.resolve("7.snapshot")));
+        assertFalse(Files.exists(directory.resolve("7.snapshot.log")));
+
+        snapshot.appendPublished(results, allPointIndexes, 400, 600);
+        snapshot.compactIfLogExceedsSnapshot();
+        assertTrue(Files.exists(directory.resolve("7.snapshot.log")), "200 log entries do not outgrow 600 published points");
+    }
+
+    @Test
+    public void ignoresAndTruncatesATornRecord() throws IOException {
+        PublishedResultSnapshot snapshot = PublishedResultSnapshot.load(directory, "7", testPoints);
+        snapshot.appendPublished(results, allPointIndexes, 0, 100);
+        snapshot.appendPublished(results, allPointIndexes, 100, 200);
+        Path log = directory.resolve("7.snapshot.log");
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(log) - 5);
+        }
+
+        PublishedResultSnapshot resumed = PublishedResultSnapshot.load(directory, "7", testPoints);
+        assertEquals(resumed.changedPointIndexes(results, allPointIndexes).length, POINTS - 100);
+        resumed.appendPublished(results, allPointIndexes, 100, 200);
+        assertEquals(PublishedResultSnapshot.load(directory, "7", testPoints).changedPointIndexes(results, allPointIndexes).length,
+                POINTS - 200);
+    }
+
+    @Test
+    public void parallelAppendsAreAllRecorded() throws Exception {
+        PublishedResultSnapshot snapshot = PublishedResultSnapshot.load(directory, "7", testPoints);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (int from = 0; from < POINTS; from += 50) {
+                int chunkFrom = from;
+                chunks.add(executor.submit(() -> snapshot.appendPublished(results, allPointIndexes, chunkFrom, chunkFrom + 50)));
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(PublishedResultSnapshot.load(directory, "7", testPoints).changedPointIndexes(results, allPointIndexes).length, 0);
+        snapshot.compact();
+        assertEquals(PublishedResultSnapshot.load(directory, "7", testPoints).changedPointIndexes(results, allPointIndexes).length, 0);
+    }
+}
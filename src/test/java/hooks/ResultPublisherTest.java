@@ -0,0 +1,70 @@
+package hooks;
+
+import benchmarks.BenchmarkData;
+import benchmarks.LocalAzureStub;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class ResultPublisherTest {
+    private static final int POINTS = 20;
+
+    private LocalAzureStub stub;
+    private AzureClient azureClient;
+    private Path directory;
+    private AzureService azureService;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        stub = new LocalAzureStub(2).setPoints(POINTS);
+        azureClient = new AzureClient(stub.getServerUrl(), "pat", 4, 1000, 10000, 60);
+        directory = Files.createTempDirectory("result-publisher");
+        Map<String, Object> config = new HashMap<>();
+        config.put("ServerUrl", stub.getServerUrl());
+        config.put("PublishedSnapshotDir", directory.toString());
+        config.put("UploadMaxRetries", 1);
+        config.put("UploadInitialBackoffMs", 1);
+        azureService = new AzureService(new AzureConfig(config), azureClient);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown() throws IOException {
+        azureClient.close();
+        stub.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void closePublishesRemainingResults() {
+        ResultPublisher publisher = new ResultPublisher(azureService, "1", BenchmarkData.testPoints(POINTS), 1000, 3600);
+        for (int i = 0; i < POINTS; i++) {
+            publisher.publish(BenchmarkData.scenario(i));
+        }
+        assertTrue(publisher.close());
+        assertEquals(stub.getResultsReceived(), POINTS);
+    }
+
+    @Test
+    public void closeReportsResultsItCouldNotPublish() {
+        stub.failRequests(AzureClient.Endpoint.UPDATE_RUN_WITH_RESULT, 1, 500, -1);
+        ResultPublisher publisher = new ResultPublisher(azureService, "1", BenchmarkData.testPoints(POINTS), 1000, 3600);
+        for (int i = 0; i < POINTS; i++) {
+            publisher.publish(BenchmarkData.scenario(i));
+        }
+        assertFalse(publisher.close());
+        assertEquals(stub.getResultsReceived(), 0);
+    }
+}
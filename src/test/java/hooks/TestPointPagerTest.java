@@ -0,0 +1,61 @@
+package hooks;
+
+import benchmarks.BenchmarkData;
+import benchmarks.LocalAzureStub;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+
+public class TestPointPagerTest {
+    private static final int POINTS = 2500;
+
+    private LocalAzureStub stub;
+    private AzureClient azureClient;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        stub = new LocalAzureStub(4).setPoints(POINTS).setPageSize(1000);
+        azureClient = new AzureClient(stub.getServerUrl(), "pat", 8, 1000, 10000, 60);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown() {
+        azureClient.close();
+        stub.close();
+    }
+
+    @DataProvider
+    public Object[][] paging() {
+        return new Object[][]{
+                // page size, parallelism, server cap on $top
+                {0, 1, 0},
+                {1000, 1, 0},
+                {1000, 4, 0},
+                {1000, 1, 300},
+                {1000, 4, 300},
+                {500, 3, 0},
+        };
+    }
+
+    @Test(dataProvider = "paging")
+    public void readsEveryPage(int pageSize, int parallelism, int maxTop) {
+        stub.setMaxTop(maxTop);
+        Map<String, Object> config = new HashMap<>();
+        config.put("ServerUrl", stub.getServerUrl());
+        AzureService azureService = new AzureService(new AzureConfig(config), azureClient);
+
+        TestPoints testPoints = new TestPointPager(azureService, "1", "2", pageSize, parallelism).readAll();
+
+        assertEquals(testPoints.size(), POINTS);
+        for (int i = 0; i < POINTS; i++) {
+            assertEquals(testPoints.getPointIDs()[i], BenchmarkData.FIRST_POINT_ID + i);
+            assertEquals(testPoints.getTestCaseIDs()[i], BenchmarkData.FIRST_TEST_CASE_ID + i);
+        }
+    }
+}
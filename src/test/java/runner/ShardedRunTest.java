@@ -0,0 +1,143 @@
+package runner;
+
+import benchmarks.BenchmarkData;
+import benchmarks.LocalAzureStub;
+import hooks.AzureClient;
+import hooks.AzureConfig;
+import hooks.AzureService;
+import hooks.ShardWorkspace;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import utils.ExcelUtil;
+import utils.ResultMerger;
+import utils.ScenarioResult;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Sharded run end to end against the local Azure stub: prepare, worker shards in their own JVMs, then finish.
+ */
+public class ShardedRunTest {
+    private static final int POINTS = 300;
+    private static final int SHARDS = 3;
+
+    private LocalAzureStub stub;
+    private AzureClient azureClient;
+    private Path directory;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        stub = new LocalAzureStub(4).setPoints(POINTS).setPageSize(100);
+        azureClient = new AzureClient(stub.getServerUrl(), "pat", 4, 1000, 10000, 60);
+        directory = Files.createTempDirectory("sharded-run");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown() throws IOException {
+        azureClient.close();
+        stub.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void shardsAreMergedIntoOneRun() throws Exception {
+        Path shardDir = directory.resolve("shards");
+        // Left by a previous run in the same directory, prepare deletes them
+        ShardWorkspace previous = new ShardWorkspace(shardDir, "9");
+        Files.createDirectories(shardDir);
+        Files.write(previous.getJournalPath(), new byte[]{1, 2, 3});
+        previous.markDone();
+        ShardCoordinator coordinator = new ShardCoordinator(shardDir, createAzureService());
+        coordinator.prepare();
+        assertEquals(previous.countDoneShards(), 0);
+        assertTrue(previous.listJournals().isEmpty());
+
+        List<Process> workers = new ArrayList<>();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            workers.add(startWorker(shardDir, shard));
+        }
+        for (Process worker : workers) {
+            assertTrue(worker.waitFor(120, TimeUnit.SECONDS), "Worker shard did not finish");
+            assertEquals(worker.exitValue(), 0);
+        }
+
+        coordinator.finish(SHARDS, 10, ResultMerger.Policy.WORST);
+
+        // One plan and run for all the shards, and one result per point although scenario 1 ran twice
+        assertEquals(stub.getRequestCount(AzureClient.Endpoint.CREATE_PLAN), 1);
+        assertEquals(stub.getRequestCount(AzureClient.Endpoint.CREATE_TEST_RUN), 1);
+        assertEquals(stub.getResultsReceived(), POINTS);
+        for (int shard = 0; shard < SHARDS; shard++) {
+            ShardWorkspace workspace = new ShardWorkspace(shardDir, String.valueOf(shard));
+            assertTrue(Files.size(workspace.getShardFile(".xlsx")) > 0);
+            assertTrue(Files.size(workspace.getShardFile(".json")) > 0);
+        }
+        assertEquals(new ShardWorkspace(shardDir, "0").listJournals().size(), SHARDS);
+    }
+
+    @Test
+    public void metricsFileIsPerShard() {
+        ShardWorkspace workspace = new ShardWorkspace(Paths.get("shards"), "7");
+        assertEquals(workspace.getMetricsPath(null), Paths.get("shards", "shard-7-metrics.json"));
+        assertEquals(workspace.getMetricsPath("target/metrics.prom"), Paths.get("target", "metrics.shard-7.prom"));
+        assertEquals(workspace.getMetricsPath("metrics"), Paths.get("metrics.shard-7"));
+    }
+
+    private AzureService createAzureService() {
+        Map<String, Object> config = new HashMap<>();
+        config.put("ServerUrl", stub.getServerUrl());
+        config.put("PlanName", "Sharded plan");
+        config.put("SuiteName", "Sharded suite");
+        config.put("RunName", "Sharded run");
+        config.put("PublishedSnapshotDir", directory.resolve("published").toString());
+        config.put("UploadChunkSize", 50);
+        return new AzureService(new AzureConfig(config), azureClient);
+    }
+
+    private Process startWorker(Path shardDir, int shard) throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                "-DSHARD_DIR=" + shardDir, "-DSHARD_ID=" + shard, Worker.class.getName(), String.valueOf(shard))
+                .redirectErrorStream(true)
+                .redirectOutput(directory.resolve("worker-" + shard + ".log").toFile())
+                .start();
+    }
+
+    /**
+     * Worker shard as run by Runner, without Cucumber: journal and reports in the shard directory, then the done
+     * marker. Shard n runs the scenarios i with i % SHARDS == n, shard 0 also reruns scenario 1 as failed.
+     */
+    public static class Worker {
+        public static void main(String[] args) {
+            int shard = Integer.parseInt(args[0]);
+            ShardWorkspace workspace = ShardWorkspace.fromSystemProperties();
+            ExcelUtil excelUtil = new ExcelUtil();
+            excelUtil.createTestExcelBeforeSuit(workspace.getJournalPath().toString());
+            for (int i = shard; i < POINTS; i += SHARDS) {
+                excelUtil.writeTestData(BenchmarkData.scenario(i));
+            }
+            if (shard == 0) {
+                ScenarioResult rerun = BenchmarkData.scenario(1);
+                excelUtil.writeTestData(new ScenarioResult(rerun.getScenarioName(), "FAILED", rerun.getTestCaseIds(),
+                        rerun.getFeatureName(), rerun.getExecutionTimeNanos()));
+            }
+            excelUtil.createTestExcelAfterSuit();
+            workspace.markDone();
+        }
+    }
+}
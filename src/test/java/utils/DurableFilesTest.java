@@ -0,0 +1,45 @@
+package utils;
+
+import org.testng.annotations.Test;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.expectThrows;
+
+public class DurableFilesTest {
+
+    @Test
+    public void replacesTheFile() throws IOException {
+        Path directory = Files.createTempDirectory("durable-files");
+        Path file = directory.resolve("nested").resolve("state.properties");
+        DurableFiles.writeDurably(file, "first".getBytes(StandardCharsets.UTF_8));
+        DurableFiles.writeDurably(file, out -> out.write("second".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(new String(Files.readAllBytes(file), StandardCharsets.UTF_8), "second");
+        assertEquals(countFiles(file.getParent()), 1);
+    }
+
+    @Test
+    public void failedWriteKeepsThePreviousContent() throws IOException {
+        Path file = Files.createTempDirectory("durable-files").resolve("state.properties");
+        DurableFiles.writeDurably(file, "first".getBytes(StandardCharsets.UTF_8));
+
+        expectThrows(RuntimeException.class, () -> DurableFiles.writeDurably(file, out -> {
+            out.write("partial".getBytes(StandardCharsets.UTF_8));
+            throw new IOException("disk full");
+        }));
+
+        assertEquals(new String(Files.readAllBytes(file), StandardCharsets.UTF_8), "first");
+        assertEquals(countFiles(file.getParent()), 1);
+    }
+
+    private static long countFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package utils;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertThrows;
+
+public class ExcelRowReaderTest {
+    private Path directory;
+
+    @BeforeMethod
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("excel-row-reader");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(path -> path.toFile().delete());
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    public void readsSparseXlsxRows() throws IOException {
+        String file = write(new XSSFWorkbook(), "report.xlsx");
+
+        try (ExcelRowReader reader = ExcelRowReader.open(file, "Run")) {
+            assertEquals(reader.getHeader(), new String[]{"Scenario", "Status", "Test Case ID", "Feature"});
+            assertEquals(reader.getColumnIndex(" feature "), 3);
+
+            String[] sparse = reader.next();
+            assertEquals(sparse, new String[]{"Login", "", "", "Accounts"});
+            String[] shortRow = reader.next();
+            assertEquals(shortRow, new String[]{"", "FAILED"});
+            assertEquals(ExcelRowReader.getCell(shortRow, 3), "");
+            String[] typed = reader.next();
+            assertEquals(typed, new String[]{"Numbers", "TRUE", "42"});
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    public void readsXlsRows() throws IOException {
+        String file = write(new HSSFWorkbook(), "report.xls");
+
+        try (ExcelRowReader reader = ExcelRowReader.open(file, "Run")) {
+            List<String[]> rows = reader.rows().collect(Collectors.toList());
+            assertEquals(rows.size(), 3);
+            assertEquals(rows.get(0), new String[]{"Login", "", "", "Accounts"});
+            assertEquals(rows.get(2)[2], "42");
+        }
+    }
+
+    @Test
+    public void rejectsMissingSheetAndColumn() throws IOException {
+        String file = write(new XSSFWorkbook(), "report.xlsx");
+
+        assertThrows(IllegalArgumentException.class, () -> ExcelRowReader.open(file, "Missing"));
+        try (ExcelRowReader reader = ExcelRowReader.open(file, "Run")) {
+            assertThrows(IllegalArgumentException.class, () -> reader.getColumnIndex("Duration"));
+        }
+    }
+
+    private String write(Workbook workbook, String fileName) throws IOException {
+        Path file = directory.resolve(fileName);
+        try (Workbook closing = workbook; OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet("Run");
+            // Row 0 is left out, the header is the first row with content
+            Row header = sheet.createRow(1);
+            String[] columns = {"Scenario", "Status", "Test Case ID", "Feature"};
+            for (int i = 0; i < columns.length; i++) {
+                header.createCell(i).setCellValue(columns[i]);
+            }
+            Row sparse = sheet.createRow(2);
+            sparse.createCell(0).setCellValue("Login");
+            sparse.createCell(3).setCellValue("Accounts");
+            sheet.createRow(3).createCell(1).setCellValue("FAILED");
+            Row typed = sheet.createRow(4);
+            typed.createCell(0).setCellValue("Numbers");
+            typed.createCell(1).setCellValue(true);
+            typed.createCell(2).setCellValue(42);
+            workbook.write(out);
+        }
+        return file.toString();
+    }
+}
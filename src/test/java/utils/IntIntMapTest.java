@@ -0,0 +1,60 @@
+package utils;
+
+import org.testng.annotations.Test;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class IntIntMapTest {
+
+    @Test
+    public void storesTheFreeKey() {
+        IntIntMap map = new IntIntMap(4, -1);
+        assertFalse(map.containsKey(0));
+        assertEquals(map.get(0), -1);
+
+        map.put(0, 10);
+        map.put(0, 11);
+        map.put(5, 0);
+
+        assertTrue(map.containsKey(0));
+        assertEquals(map.get(0), 11);
+        assertEquals(map.get(5), 0);
+        assertEquals(map.size(), 2);
+    }
+
+    @Test
+    public void keepsEntriesAcrossRehash() {
+        IntIntMap map = new IntIntMap(2, -1);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            int key = i % 3 == 0 ? -random.nextInt(1000) : random.nextInt();
+            map.put(key, i);
+            expected.put(key, i);
+        }
+
+        assertEquals(map.size(), expected.size());
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertEquals(map.get(entry.getKey()), (int) entry.getValue(), "key " + entry.getKey());
+        }
+        Map<Integer, Integer> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        assertEquals(iterated, expected);
+    }
+
+    @Test
+    public void returnsMissingValueForAbsentKeys() {
+        IntIntMap map = new IntIntMap(16, Integer.MIN_VALUE);
+        for (int i = 1; i <= 1000; i++) {
+            map.put(i * 1024, i);
+        }
+        assertEquals(map.get(7), Integer.MIN_VALUE);
+        assertFalse(map.containsKey(1025));
+        assertEquals(map.get(1024 * 1000), 1000);
+    }
+}
@@ -0,0 +1,165 @@
+package utils;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class ResultJournalTest {
+    private Path directory;
+
+    @BeforeMethod
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("result-journal");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void roundTripsRecords() {
+        Path path = directory.resolve("run.journal");
+        try (ResultJournal journal = new ResultJournal(path)) {
+            journal.append(new ScenarioResult("Checkout é\tpays", "PASSED", new int[]{11, 12}, "Checkout", 1_500_000_000L));
+            journal.append(new ScenarioResult("Refund", "FAILED", new int[0], "Payments", 42L));
+            journal.append(new ScenarioResult("Login", "CUSTOM", new int[]{13}, "", 0L));
+        }
+
+        List<ScenarioResult> results = ResultJournal.readAll(path);
+        assertEquals(results.size(), 3);
+        assertResult(results.get(0), "Checkout é\tpays", "PASSED", new int[]{11, 12}, "Checkout", 1_500_000_000L);
+        assertResult(results.get(1), "Refund", "FAILED", new int[0], "Payments", 42L);
+        assertResult(results.get(2), "Login", "CUSTOM", new int[]{13}, "", 0L);
+        assertEquals(results.get(0).getExecutionTimeSec(), 1);
+    }
+
+    @Test
+    public void aggregatesWithoutDecodingStrings() {
+        Path path = directory.resolve("run.journal");
+        try (ResultJournal journal = new ResultJournal(path)) {
+            for (int i = 0; i < 100; i++) {
+                journal.append(new ScenarioResult("Scenario " + i, i % 4 == 0 ? "FAILED" : "PASSED", new int[]{i % 10}, "Feature", i));
+            }
+        }
+
+        try (ResultJournalReader reader = ResultJournalReader.open(path)) {
+            long[] counts = reader.countByStatus();
+            assertEquals(counts[ResultJournal.getStatusCode("PASSED")], 75);
+            assertEquals(counts[ResultJournal.getStatusCode("FAILED")], 25);
+        }
+        try (ResultJournalReader reader = ResultJournalReader.open(path)) {
+            assertEquals(reader.findByTestCase(3).size(), 10);
+        }
+    }
+
+    @Test
+    public void drainsBufferedRecordsWithoutFurtherAppends() throws InterruptedException {
+        Path path = directory.resolve("open.journal");
+        try (ResultJournal journal = new ResultJournal(path)) {
+            journal.append(new ScenarioResult("Long scenario", "PASSED", new int[]{1}, "Feature", 1));
+            // Read by another reader while the journal stays open, as after a SIGKILL of the JVM
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            List<ScenarioResult> results = ResultJournal.readAll(path);
+            while (results.isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+                results = ResultJournal.readAll(path);
+            }
+            assertEquals(results.size(), 1);
+            assertEquals(results.get(0).getScenarioName(), "Long scenario");
+        }
+    }
+
+    @Test
+    public void readsFirstVersionJournalsInSeconds() throws IOException {
+        Path path = directory.resolve("v1.journal");
+        byte[] status = "PASSED".getBytes(StandardCharsets.UTF_8);
+        byte[] name = "Old scenario".getBytes(StandardCharsets.UTF_8);
+        byte[] feature = "Old feature".getBytes(StandardCharsets.UTF_8);
+        try (OutputStream out = Files.newOutputStream(path)) {
+            DataOutputStream data = new DataOutputStream(out);
+            data.writeInt(ResultJournal.MAGIC_V1);
+            data.writeInt(8 + 1 + 2 + 4 + 12 + status.length + name.length + feature.length);
+            data.writeLong(7);
+            data.writeByte(ResultJournal.getStatusCode("PASSED"));
+            data.writeShort(1);
+            data.writeInt(99);
+            data.writeInt(status.length);
+            data.write(status);
+            data.writeInt(name.length);
+            data.write(name);
+            data.writeInt(feature.length);
+            data.write(feature);
+        }
+
+        List<ScenarioResult> results = ResultJournal.readAll(path);
+        assertEquals(results.size(), 1);
+        assertResult(results.get(0), "Old scenario", "PASSED", new int[]{99}, "Old feature", TimeUnit.SECONDS.toNanos(7));
+    }
+
+    @Test
+    public void readsLegacyTextJournals() throws IOException {
+        Path path = directory.resolve("text.journal");
+        Files.write(path, "Name\\twith tab\tPASSED\t5,6\tFeature\t3\n\n".getBytes(StandardCharsets.UTF_8));
+
+        List<ScenarioResult> results = ResultJournal.readAll(path);
+        assertEquals(results.size(), 1);
+        assertResult(results.get(0), "Name\twith tab", "PASSED", new int[]{5, 6}, "Feature", TimeUnit.SECONDS.toNanos(3));
+    }
+
+    @Test
+    public void ignoresRecordTornByACrash() throws IOException {
+        Path path = directory.resolve("torn.journal");
+        try (ResultJournal journal = new ResultJournal(path)) {
+            for (int i = 0; i < 10; i++) {
+                journal.append(new ScenarioResult("Scenario " + i, "PASSED", new int[]{i}, "Feature", i));
+            }
+        }
+        long size = Files.size(path);
+        for (long cut = 1; cut < 20; cut++) {
+            Path torn = directory.resolve("torn-" + cut + ".journal");
+            Files.copy(path, torn);
+            try (FileChannel channel = FileChannel.open(torn, StandardOpenOption.WRITE)) {
+                channel.truncate(size - cut);
+            }
+            List<ScenarioResult> results = ResultJournal.readAll(torn);
+            assertEquals(results.size(), 9, "cut " + cut);
+            assertEquals(results.get(8).getScenarioName(), "Scenario 8");
+        }
+    }
+
+    @Test
+    public void readsEmptyAndMissingJournals() {
+        Path path = directory.resolve("empty.journal");
+        new ResultJournal(path).close();
+        assertTrue(ResultJournal.readAll(path).isEmpty());
+        assertTrue(ResultJournal.readAll(directory.resolve("missing.journal")).isEmpty());
+    }
+
+    private static void assertResult(ScenarioResult result, String scenarioName, String status, int[] testCaseIds,
+                                     String featureName, long executionTimeNanos) {
+        assertEquals(result.getScenarioName(), scenarioName);
+        assertEquals(result.getStatus(), status);
+        assertEquals(result.getTestCaseIds(), testCaseIds, Arrays.toString(result.getTestCaseIds()));
+        assertEquals(result.getFeatureName(), featureName);
+        assertEquals(result.getExecutionTimeNanos(), executionTimeNanos);
+    }
+}
@@ -0,0 +1,69 @@
+package utils;
+
+import org.testng.annotations.Test;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+
+public class ResultMergerTest {
+
+    @Test
+    public void latestResultWins() {
+        ResultMerger merger = new ResultMerger(ResultMerger.Policy.LATEST);
+        merger.addAll(Arrays.asList(
+                result("First", "FAILED", 1, 2),
+                result("Second", "PASSED", 2),
+                result("Third", "SKIPPED", 1)));
+
+        List<ScenarioResult> merged = merger.getResults();
+        assertEquals(merger.getScenarioCount(), 3);
+        assertEquals(merger.getTestCaseCount(), 2);
+        assertMerged(merged.get(0), 1, "Third", "SKIPPED");
+        assertMerged(merged.get(1), 2, "Second", "PASSED");
+    }
+
+    @Test
+    public void worstResultWins() {
+        ResultMerger merger = new ResultMerger(ResultMerger.Policy.WORST);
+        merger.addAll(Arrays.asList(
+                result("Failed", "FAILED", 1),
+                result("Passed later", "PASSED", 1),
+                result("Skipped", "SKIPPED", 2),
+                result("Undefined", "UNDEFINED", 2),
+                result("Passed", "PASSED", 2)));
+
+        List<ScenarioResult> merged = merger.getResults();
+        assertMerged(merged.get(0), 1, "Failed", "FAILED");
+        assertMerged(merged.get(1), 2, "Undefined", "UNDEFINED");
+    }
+
+    @Test
+    public void latestResultWinsBetweenEqualStatuses() {
+        ResultMerger merger = new ResultMerger(ResultMerger.Policy.WORST);
+        merger.add(result("First failure", "FAILED", 1));
+        merger.add(result("Second failure", "failed", 1));
+
+        assertMerged(merger.getResults().get(0), 1, "Second failure", "failed");
+    }
+
+    @Test
+    public void ranksStatuses() {
+        assertEquals(ResultMerger.getSeverity("PASSED"), 0);
+        assertEquals(ResultMerger.getSeverity("skipped"), 1);
+        assertEquals(ResultMerger.getSeverity("PENDING"), 2);
+        assertEquals(ResultMerger.getSeverity("AMBIGUOUS"), 3);
+        assertEquals(ResultMerger.getSeverity("FAILED"), 4);
+        assertEquals(ResultMerger.getSeverity(null), 2);
+    }
+
+    private static ScenarioResult result(String name, String status, int... testCaseIds) {
+        return new ScenarioResult(name, status, testCaseIds, "Feature", 1);
+    }
+
+    private static void assertMerged(ScenarioResult result, int testCaseId, String scenarioName, String status) {
+        assertEquals(result.getTestCaseIds(), new int[]{testCaseId});
+        assertEquals(result.getScenarioName(), scenarioName);
+        assertEquals(result.getStatus(), status);
+    }
+}
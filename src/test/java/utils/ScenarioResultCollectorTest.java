@@ -0,0 +1,76 @@
+package utils;
+
+import org.testng.annotations.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class ScenarioResultCollectorTest {
+
+    @Test
+    public void snapshotListsResultsInCompletionOrderAcrossThreads() throws Exception {
+        ScenarioResultCollector collector = new ScenarioResultCollector();
+        ExecutorService first = Executors.newSingleThreadExecutor();
+        ExecutorService second = Executors.newSingleThreadExecutor();
+        try {
+            first.submit(() -> collector.add(result("first", "FAILED"))).get();
+            second.submit(() -> collector.add(result("second", "PASSED"))).get();
+            first.submit(() -> collector.add(result("third", "PASSED"))).get();
+            second.submit(() -> collector.add(result("fourth", "FAILED"))).get();
+        } finally {
+            first.shutdown();
+            second.shutdown();
+        }
+
+        List<String> names = new ArrayList<>();
+        for (ScenarioResult result : collector.snapshot()) {
+            names.add(result.getScenarioName());
+        }
+        assertEquals(names, List.of("first", "second", "third", "fourth"));
+
+        ResultMerger merger = new ResultMerger(ResultMerger.Policy.LATEST);
+        merger.addAll(collector.snapshot());
+        assertEquals(merger.getResults().get(0).getScenarioName(), "fourth");
+    }
+
+    @Test
+    public void snapshotKeepsEveryResultOfParallelWriters() throws Exception {
+        ScenarioResultCollector collector = new ScenarioResultCollector();
+        int threads = 8;
+        int perThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            writers.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    collector.add(new ScenarioResult(thread + ":" + i, "PASSED", new int[]{i}, "Feature", 0));
+                }
+            }));
+        }
+        // Snapshots taken while writers run only hold completed results
+        while (!writers.stream().allMatch(Future::isDone)) {
+            assertTrue(collector.snapshot().size() <= threads * perThread);
+        }
+        executor.shutdown();
+
+        List<ScenarioResult> results = collector.snapshot();
+        assertEquals(results.size(), threads * perThread);
+        assertEquals(collector.size(), threads * perThread);
+        int[] next = new int[threads];
+        for (ScenarioResult result : results) {
+            String[] name = result.getScenarioName().split(":");
+            int thread = Integer.parseInt(name[0]);
+            assertEquals(Integer.parseInt(name[1]), next[thread]++, "results of one thread stay in order");
+        }
+    }
+
+    private static ScenarioResult result(String name, String status) {
+        return new ScenarioResult(name, status, new int[]{1}, "Feature", 0);
+    }
+}